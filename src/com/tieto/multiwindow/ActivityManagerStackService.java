@@ -0,0 +1,73 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.app.IActivityManager;
+import android.graphics.Rect;
+import android.os.RemoteException;
+import android.util.Log;
+
+/**
+ * StackService implementation talking to the activity manager. If the
+ * service is a BatchedActivityManager, relayouts and removals of several
+ * stacks are sent with a single call, otherwise every stack is handled
+ * with a single relayoutWindow/removeWindow call.
+ */
+class ActivityManagerStackService implements StackService {
+
+    private static final String TAG = "TMW";
+    private static final boolean DEBUG = false;
+    private final IActivityManager mService;
+    private final BatchedActivityManager mBatched;
+
+    ActivityManagerStackService(IActivityManager service) {
+        mService = service;
+        mBatched = service instanceof BatchedActivityManager ? (BatchedActivityManager) service : null;
+        if (DEBUG) {
+            Log.v(TAG, "batched relayout " + (mBatched != null ? "available" : "not available"));
+        }
+    }
+
+    @Override
+    public void relayoutWindows(int[] stackIds, Rect[] rects, int count) throws RemoteException {
+        if (mBatched != null && count > 1) {
+            mBatched.relayoutWindows(stackIds, rects, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            mService.relayoutWindow(stackIds[i], rects[i]);
+        }
+    }
+
+    @Override
+    public void removeWindows(int[] stackIds, int count) throws RemoteException {
+        if (mBatched != null && count > 1) {
+            mBatched.removeWindows(stackIds, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            mService.removeWindow(stackIds[i]);
+        }
+    }
+
+    @Override
+    public int initWindow(Rect position) throws RemoteException {
+        return mService.initWindow(position);
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.app.ActivityManagerNative;
+import android.app.IActivityManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.RemoteException;
+import android.util.Log;
+
+/**
+ * Purpose of this class is to launch applications in window stacks.
+ * Launches run on a small bounded pool of threads, every launch has its
+ * timeout and retries, and the result is reported on the UI thread.
+ */
+public class AppLaunchExecutor {
+
+    /**
+     * Implement this interface to get notified (on the UI thread) when the
+     * launch has finished.
+     */
+    public interface LaunchListener {
+        void onLaunchFinished(int stackId, boolean success);
+    }
+
+    private static final IActivityManager mService = ActivityManagerNative.getDefault();
+    private static final String TAG = "TMW";
+    private static final long RETRY_DELAY_MS = 200;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final StackIdMap<Launch> mLaunches = new StackIdMap<Launch>();
+    private final long mTimeout;
+    private final int mRetries;
+
+    public AppLaunchExecutor(Context context) {
+        Resources res = context.getResources();
+        int threads = res.getInteger(R.integer.launch_threads);
+        mTimeout = res.getInteger(R.integer.launch_timeout_ms);
+        mRetries = res.getInteger(R.integer.launch_retries);
+        // every window there can be may be launched at once, e.g. on restore
+        int queueSize = res.getInteger(R.integer.max_tabs) * res.getInteger(R.integer.max_windows_per_tab);
+        mExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new LauncherThreadFactory());
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Method queues launch of the intent in the given stack. Previous launch
+     * for the same stack is cancelled. Has to be called on the UI thread.
+     */
+    public Future<?> launch(Intent intent, int stackId, LaunchListener listener) {
+        cancel(stackId);
+        Launch launch = new Launch(intent, stackId, listener);
+        try {
+            launch.mFuture = mExecutor.submit(launch);
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Launch queue full, stack " + stackId);
+            mHandler.post(launch.mFailure);
+            return null;
+        }
+        mLaunches.put(stackId, launch);
+        mHandler.postDelayed(launch.mTimeoutCheck, mTimeout);
+        return launch.mFuture;
+    }
+
+    /**
+     * Method cancels pending launch for the stack, listener is not notified
+     */
+    public void cancel(int stackId) {
+        Launch launch = mLaunches.remove(stackId);
+        if (launch != null) {
+            launch.mDone = true;
+            mHandler.removeCallbacks(launch.mTimeoutCheck);
+            launch.mFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Method stops all launches, executor can't be used afterwards
+     */
+    public void shutdown() {
+        mExecutor.shutdownNow();
+        mHandler.removeCallbacksAndMessages(null);
+        mLaunches.clear();
+    }
+
+    private class Launch implements Runnable {
+        private final Intent mIntent;
+        private final int mStackId;
+        private final LaunchListener mListener;
+        private Future<?> mFuture;
+        private final long mStartTime = System.nanoTime();
+        // accessed on the UI thread only
+        private boolean mDone = false;
+
+        private final Runnable mSuccess = new Runnable() {
+            @Override
+            public void run() {
+                finish(true);
+            }
+        };
+
+        private final Runnable mFailure = new Runnable() {
+            @Override
+            public void run() {
+                finish(false);
+            }
+        };
+
+        private final Runnable mTimeoutCheck = new Runnable() {
+            @Override
+            public void run() {
+                Log.e(TAG, "Launch timed out, stack " + mStackId);
+                finish(false);
+                mFuture.cancel(true);
+            }
+        };
+
+        Launch(Intent intent, int stackId, LaunchListener listener) {
+            mIntent = intent;
+            mStackId = stackId;
+            mListener = listener;
+        }
+
+        @Override
+        public void run() {
+            for (int attempt = 0; attempt <= mRetries; attempt++) {
+                try {
+                    mService.startCornerstoneApp(mIntent, mStackId);
+                    mHandler.post(mSuccess);
+                    return;
+                } catch (RemoteException e) {
+                    Log.e(TAG, "Launch attempt " + attempt + " failed, stack " + mStackId + ": " + e);
+                }
+                if (attempt == mRetries) {
+                    break;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS * (attempt + 1));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            mHandler.post(mFailure);
+        }
+
+        private void finish(boolean success) {
+            if (mDone) {
+                return;
+            }
+            mDone = true;
+            mHandler.removeCallbacks(mTimeoutCheck);
+            if (mLaunches.get(mStackId) == this) {
+                mLaunches.remove(mStackId);
+            }
+            if (success) {
+                Metrics.recordLaunch(mStackId, System.nanoTime() - mStartTime);
+            }
+            if (mListener != null) {
+                mListener.onLaunchFinished(mStackId, success);
+            }
+        }
+    }
+
+    private static class LauncherThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "TMW-launcher-" + mCount.getAndIncrement());
+        }
+    }
+}
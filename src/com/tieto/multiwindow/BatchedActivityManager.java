@@ -0,0 +1,43 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import android.graphics.Rect;
+import android.os.RemoteException;
+
+/**
+ * Interface declares batched stack calls. Activity manager of a platform
+ * build taking relayouts and removals of many stacks in one transaction
+ * implements it next to IActivityManager, ActivityManagerStackService
+ * uses it then instead of one call per stack.
+ */
+interface BatchedActivityManager {
+
+    /**
+     * Method relayouts first count stacks given in stackIds to the
+     * corresponding rects with a single call.
+     */
+    void relayoutWindows(int[] stackIds, Rect[] rects, int count) throws RemoteException;
+
+    /**
+     * Method removes first count stacks given in stackIds with a single call.
+     */
+    void removeWindows(int[] stackIds, int count) throws RemoteException;
+}
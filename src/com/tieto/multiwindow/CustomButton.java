@@ -22,14 +22,17 @@ import android.content.Context;
 import android.util.AttributeSet;
 import android.widget.Button;
 
-import com.tieto.multiwindow.MultiWindow.State;
-import com.tieto.multiwindow.MultiWindow.StateChangedListener;
-
 public class CustomButton extends Button implements StateChangedListener {
 
     private static final int[] STATE_RIGHT = { R.attr.state_right };
     private static final int[] STATE_DOCKED = { R.attr.state_docked };
     private static final int[] STATE_EXPANDED = { R.attr.state_expanded };
+
+    /**
+     * Flags the drawable state depends on
+     */
+    private static final int STATE_FLAGS = State.FLAG_RIGHT_SIDE | State.FLAG_DOCKED | State.FLAG_EXPANDED;
+
     private State mState = null;
 
     public CustomButton(Context context, AttributeSet attrs) {
@@ -47,6 +50,8 @@ public class CustomButton extends Button implements StateChangedListener {
             MultiWindow mw = (MultiWindow) context;
             mState = mw.mState;
             mState.addStateChangedListener(this);
+            // only changes are delivered, so pick up the current state now
+            refreshDrawableState();
         }
     }
 
@@ -65,25 +70,21 @@ public class CustomButton extends Button implements StateChangedListener {
             return super.onCreateDrawableState(extraSpace);
         }
         final int[] drawableState = super.onCreateDrawableState(extraSpace + 3);
-        if (mState.mRightSide) {
+        if (mState.isRightSide()) {
             mergeDrawableStates(drawableState, STATE_RIGHT);
         }
-        if (mState.mDockedMode) {
+        if (mState.isDockedMode()) {
             mergeDrawableStates(drawableState, STATE_DOCKED);
         }
-        if (mState.mExpanded) {
+        if (mState.isExpanded()) {
             mergeDrawableStates(drawableState, STATE_EXPANDED);
         }
         return drawableState;
     }
 
-    public void onStateChanged() {
-        this.post(new Runnable() {
-
-            @Override
-            public void run() {
-                refreshDrawableState();
-            }
-        });
+    public void onStateChanged(int changedFlags, int flags) {
+        if ((changedFlags & STATE_FLAGS) != 0) {
+            refreshDrawableState();
+        }
     }
 }
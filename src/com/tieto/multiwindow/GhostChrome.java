@@ -0,0 +1,80 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Paint;
+
+/**
+ * Purpose of this class is to hold decoded assets of the ghost frame,
+ * shared by all ghost layers. Assets are loaded by the first acquire() and
+ * freed by the last release(). Has to be used on the UI thread only.
+ */
+final class GhostChrome {
+
+    private static final float FRAME_WIDTH = 8;
+    private static GhostChrome sInstance = null;
+    private static int sRefCount = 0;
+
+    final Bitmap mCorner;
+    final int mCornerDim;
+    final Paint mFramePaint;
+    final Paint mErrorFramePaint;
+    final Paint mFillPaint;
+
+    private GhostChrome(Resources res) {
+        mCorner = BitmapFactory.decodeResource(res, R.drawable.corner);
+        mCornerDim = mCorner.getWidth();
+        mFramePaint = createFramePaint(res.getColor(R.color.ghost_frame_color));
+        mErrorFramePaint = createFramePaint(res.getColor(R.color.ghost_error_frame_color));
+        mFillPaint = new Paint();
+        mFillPaint.setColor(res.getColor(R.color.ghost_color));
+    }
+
+    private static Paint createFramePaint(int color) {
+        Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setDither(true);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setColor(color);
+        paint.setStrokeWidth(FRAME_WIDTH);
+        return paint;
+    }
+
+    static GhostChrome acquire(Resources res) {
+        if (sInstance == null) {
+            sInstance = new GhostChrome(res);
+        }
+        sRefCount++;
+        return sInstance;
+    }
+
+    static void release() {
+        if (sRefCount == 0) {
+            return;
+        }
+        sRefCount--;
+        if (sRefCount == 0) {
+            sInstance.mCorner.recycle();
+            sInstance = null;
+        }
+    }
+}
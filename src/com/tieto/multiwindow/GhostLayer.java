@@ -0,0 +1,501 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Layer showing ghosts (frames) of all windows and letting the user move
+ * and resize them. Ghosts are not views: the layer keeps their rects in a
+ * uniform grid, so that a touch is tested only against ghosts overlapping
+ * its cell, and draws all of them in z-order in a single pass. Touches not
+ * hitting any ghost are delivered as clicks of the layer.
+ */
+public class GhostLayer extends View {
+
+    public static int OFFSET_X = 0;
+    public static int OFFSET_Y = 0;
+
+    /**
+     * Size of a grid cell in pixels
+     */
+    private static final int CELL_SIZE = 128;
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    /**
+     * Parts of the ghost a touch can grab. Corners combine two edges,
+     * none of them means the whole ghost is moved.
+     */
+    private static final int EDGE_LEFT = 0x1;
+    private static final int EDGE_RIGHT = 0x2;
+    private static final int EDGE_TOP = 0x4;
+    private static final int EDGE_BOTTOM = 0x8;
+
+    private GhostChrome mChrome;
+    private int mEdgeDim = 0;
+
+    /**
+     * Ghosts ordered from the bottom to the top one
+     */
+    private final ArrayList<Ghost> mGhosts = new ArrayList<Ghost>();
+    private int mNextZ = 0;
+
+    /**
+     * Uniform grid, cell at (column, row) holds ghosts overlapping it
+     */
+    private int mColumns = 0;
+    private int mRows = 0;
+    private Ghost[][] mCells = new Ghost[0][];
+    private int[] mCellCounts = new int[0];
+
+    /**
+     * Touch state
+     */
+    private Ghost mTarget = null;
+    private int mEdges = 0;
+    private int mLastRawX = 0;
+    private int mLastRawY = 0;
+    private double mDist = 0;
+    private final Rect mMovingRect = new Rect();
+    private final Rect mDroppedRect = new Rect();
+
+    private static int sDrawPasses = 0;
+    private static long sHitTests = 0;
+    private static long sHitCandidates = 0;
+
+    public GhostLayer(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /**
+     * Method adds ghost of the window on top of the others
+     */
+    Ghost addGhost(WindowRelayoutListener wrl) {
+        Ghost g = new Ghost(wrl);
+        g.mZ = ++mNextZ;
+        mGhosts.add(g);
+        return g;
+    }
+
+    /**
+     * Returns number of times all ghosts were drawn
+     */
+    public static int getDrawPassCount() {
+        return sDrawPasses;
+    }
+
+    /**
+     * Returns number of touches tested against ghosts
+     */
+    public static long getHitTestCount() {
+        return sHitTests;
+    }
+
+    /**
+     * Returns number of ghosts touches were tested against
+     */
+    public static long getHitCandidateCount() {
+        return sHitCandidates;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mChrome = GhostChrome.acquire(getResources());
+        mEdgeDim = mChrome.mCornerDim;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mChrome != null) {
+            mChrome = null;
+            GhostChrome.release();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mColumns = (w + CELL_SIZE - 1) / CELL_SIZE;
+        mRows = (h + CELL_SIZE - 1) / CELL_SIZE;
+        mCells = new Ghost[mColumns * mRows][];
+        mCellCounts = new int[mColumns * mRows];
+        for (int i = 0; i < mGhosts.size(); i++) {
+            Ghost g = mGhosts.get(i);
+            g.mCellLeft = -1;
+            index(g);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        // no allocations nor resource lookups here, everything comes from mChrome
+        if (mChrome == null) {
+            return;
+        }
+        sDrawPasses++;
+        int width = getWidth();
+        int height = getHeight();
+        Bitmap corner = mChrome.mCorner;
+        for (int i = 0; i < mGhosts.size(); i++) {
+            Ghost g = mGhosts.get(i);
+            Rect r = g.mRect;
+            if (!r.intersects(0, 0, width, height)) {
+                // hidden window, parked out of the screen
+                continue;
+            }
+            Paint paint = g.mLaunchFailed ? mChrome.mErrorFramePaint : mChrome.mFramePaint;
+            canvas.drawRect(r, mChrome.mFillPaint);
+            if (g.mThumbnail != null) {
+                canvas.drawBitmap(g.mThumbnail, null, r, null);
+            }
+            canvas.drawRect(r, paint);
+            canvas.drawBitmap(corner, r.left, r.top, paint);
+            canvas.drawBitmap(corner, r.left, r.bottom - mEdgeDim, paint);
+            canvas.drawBitmap(corner, r.right - mEdgeDim, r.bottom - mEdgeDim, paint);
+            canvas.drawBitmap(corner, r.right - mEdgeDim, r.top, paint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        final int rawX = (int) event.getRawX();
+        final int rawY = (int) event.getRawY();
+
+        switch (event.getActionMasked()) {
+
+        case MotionEvent.ACTION_DOWN:
+            mTarget = hitTest((int) event.getX(), (int) event.getY());
+            if (mTarget != null) {
+                raise(mTarget);
+                mEdges = edgesAt(mTarget, (int) event.getX(), (int) event.getY());
+                mTarget.mListener.onWindowMoveStarted();
+            }
+            mDist = 0;
+            break;
+
+        case MotionEvent.ACTION_MOVE:
+            if (mTarget == null) {
+                break;
+            }
+            Rect r = mTarget.mRect;
+            int dx = rawX - mLastRawX;
+            int dy = rawY - mLastRawY;
+            if (mEdges != 0) {
+                if ((mEdges & EDGE_LEFT) != 0) {
+                    r.left += dx;
+                } else if ((mEdges & EDGE_RIGHT) != 0) {
+                    r.right += dx;
+                }
+                if ((mEdges & EDGE_TOP) != 0) {
+                    r.top += dy;
+                } else if ((mEdges & EDGE_BOTTOM) != 0) {
+                    r.bottom += dy;
+                }
+                // keep the corners apart, so the ghost can't turn inside out
+                int min = 2 * mEdgeDim;
+                if (r.width() < min) {
+                    if ((mEdges & EDGE_LEFT) != 0) {
+                        r.left = r.right - min;
+                    } else {
+                        r.right = r.left + min;
+                    }
+                }
+                if (r.height() < min) {
+                    if ((mEdges & EDGE_TOP) != 0) {
+                        r.top = r.bottom - min;
+                    } else {
+                        r.bottom = r.top + min;
+                    }
+                }
+            } else if (event.getPointerCount() >= 2) {
+                float x0 = event.getX(0);
+                float y0 = event.getY(0);
+                float x1 = event.getX(1);
+                float y1 = event.getY(1);
+                double dist = Math.sqrt((x0 - x1) * (x0 - x1) + (y0 - y1) * (y0 - y1));
+                if (mDist != 0) {
+                    double scale = dist / mDist;
+                    r.right = r.left + (int) (r.width() * scale);
+                    r.bottom = r.top + (int) (r.height() * scale);
+                }
+                mDist = dist;
+            } else {
+                r.offset(dx, dy);
+            }
+            invalidate();
+            mMovingRect.set(r);
+            mMovingRect.offset(OFFSET_X, OFFSET_Y);
+            mTarget.mListener.onWindowMoving(mMovingRect);
+            break;
+
+        case MotionEvent.ACTION_UP:
+            if (mTarget == null) {
+                performClick();
+                break;
+            }
+            Ghost target = mTarget;
+            mTarget = null;
+            index(target);
+            mDroppedRect.set(target.mRect);
+            mDroppedRect.offset(OFFSET_X, OFFSET_Y);
+            target.mListener.onWindowRelayout(mDroppedRect);
+            invalidate();
+            break;
+
+        case MotionEvent.ACTION_CANCEL:
+            if (mTarget != null) {
+                // ghost goes back to where its window is
+                Ghost cancelled = mTarget;
+                mTarget = null;
+                cancelled.mRect.set(cancelled.mCommitted);
+                index(cancelled);
+                // window may have followed the drag live, bring it back as well
+                mDroppedRect.set(cancelled.mRect);
+                mDroppedRect.offset(OFFSET_X, OFFSET_Y);
+                cancelled.mListener.onWindowRelayout(mDroppedRect);
+                invalidate();
+            }
+            break;
+        }
+
+        mLastRawX = rawX;
+        mLastRawY = rawY;
+        return true;
+    }
+
+    /**
+     * Returns the topmost ghost at the point, or null. Only ghosts
+     * overlapping the grid cell of the point are tested.
+     */
+    private Ghost hitTest(int x, int y) {
+        sHitTests++;
+        if (x < 0 || y < 0 || x >= mColumns * CELL_SIZE || y >= mRows * CELL_SIZE) {
+            return null;
+        }
+        int cell = (y / CELL_SIZE) * mColumns + x / CELL_SIZE;
+        Ghost[] ghosts = mCells[cell];
+        Ghost best = null;
+        for (int i = 0; i < mCellCounts[cell]; i++) {
+            Ghost g = ghosts[i];
+            sHitCandidates++;
+            if (g.mRect.contains(x, y) && (best == null || g.mZ > best.mZ)) {
+                best = g;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns edges of the ghost grabbed at the point. A point in a corner
+     * square grabs both edges of the corner.
+     */
+    private int edgesAt(Ghost g, int x, int y) {
+        Rect r = g.mRect;
+        int edges = 0;
+        if (x - r.left < mEdgeDim) {
+            edges |= EDGE_LEFT;
+        } else if (r.right - x <= mEdgeDim) {
+            edges |= EDGE_RIGHT;
+        }
+        if (y - r.top < mEdgeDim) {
+            edges |= EDGE_TOP;
+        } else if (r.bottom - y <= mEdgeDim) {
+            edges |= EDGE_BOTTOM;
+        }
+        return edges;
+    }
+
+    /**
+     * Method moves the ghost on top of all the others
+     */
+    private void raise(Ghost g) {
+        g.mZ = ++mNextZ;
+        if (mGhosts.get(mGhosts.size() - 1) != g) {
+            mGhosts.remove(g);
+            mGhosts.add(g);
+            invalidate();
+        }
+    }
+
+    /**
+     * Method puts the ghost into cells it overlaps now, after removing it
+     * from the cells it was in. Ghost staying in the same cells is not
+     * touched, so that moving many overlapping ghosts by a few pixels
+     * doesn't scan the shared cells for each of them.
+     */
+    private void index(Ghost g) {
+        Rect r = g.mRect;
+        if (mColumns == 0 || !r.intersects(0, 0, mColumns * CELL_SIZE, mRows * CELL_SIZE)) {
+            unindex(g);
+            return;
+        }
+        int left = Math.max(0, r.left / CELL_SIZE);
+        int top = Math.max(0, r.top / CELL_SIZE);
+        int right = Math.min(mColumns - 1, (r.right - 1) / CELL_SIZE);
+        int bottom = Math.min(mRows - 1, (r.bottom - 1) / CELL_SIZE);
+        if (g.mCellLeft == left && g.mCellTop == top && g.mCellRight == right && g.mCellBottom == bottom) {
+            return;
+        }
+        unindex(g);
+        g.mCellLeft = left;
+        g.mCellTop = top;
+        g.mCellRight = right;
+        g.mCellBottom = bottom;
+        for (int row = g.mCellTop; row <= g.mCellBottom; row++) {
+            for (int column = g.mCellLeft; column <= g.mCellRight; column++) {
+                int cell = row * mColumns + column;
+                Ghost[] ghosts = mCells[cell];
+                if (ghosts == null) {
+                    ghosts = new Ghost[INITIAL_CELL_CAPACITY];
+                    mCells[cell] = ghosts;
+                } else if (mCellCounts[cell] == ghosts.length) {
+                    Ghost[] grown = new Ghost[ghosts.length * 2];
+                    System.arraycopy(ghosts, 0, grown, 0, ghosts.length);
+                    ghosts = grown;
+                    mCells[cell] = ghosts;
+                }
+                ghosts[mCellCounts[cell]++] = g;
+            }
+        }
+    }
+
+    private void unindex(Ghost g) {
+        if (g.mCellLeft == -1) {
+            return;
+        }
+        for (int row = g.mCellTop; row <= g.mCellBottom; row++) {
+            for (int column = g.mCellLeft; column <= g.mCellRight; column++) {
+                int cell = row * mColumns + column;
+                Ghost[] ghosts = mCells[cell];
+                int count = mCellCounts[cell];
+                for (int i = 0; i < count; i++) {
+                    if (ghosts[i] == g) {
+                        // order within a cell doesn't matter, z decides
+                        ghosts[i] = ghosts[count - 1];
+                        ghosts[count - 1] = null;
+                        mCellCounts[cell] = count - 1;
+                        break;
+                    }
+                }
+            }
+        }
+        g.mCellLeft = -1;
+    }
+
+    /**
+     * Ghost of one window. Rects are in the layer coordinates.
+     */
+    class Ghost {
+        private final WindowRelayoutListener mListener;
+
+        /**
+         * Rect shown, differs from mCommitted while the ghost is dragged
+         */
+        private final Rect mRect = new Rect();
+        private final Rect mCommitted = new Rect();
+        private int mZ;
+        private Bitmap mThumbnail = null;
+        private boolean mLaunchFailed = false;
+        private int mCellLeft = -1;
+        private int mCellTop;
+        private int mCellRight;
+        private int mCellBottom;
+
+        private Ghost(WindowRelayoutListener wrl) {
+            mListener = wrl;
+        }
+
+        /**
+         * Method moves the ghost to the window position (in screen coordinates)
+         */
+        void updatePosition(Rect position) {
+            mCommitted.set(position);
+            mCommitted.offset(-OFFSET_X, -OFFSET_Y);
+            if (mTarget == this) {
+                // ghost is being dragged, it is updated on release
+                return;
+            }
+            if (mRect.equals(mCommitted)) {
+                return;
+            }
+            mRect.set(mCommitted);
+            index(this);
+            invalidate();
+        }
+
+        /**
+         * Method sets thumbnail drawn inside the frame, null removes it
+         */
+        void setThumbnail(Bitmap thumbnail) {
+            if (mThumbnail != thumbnail) {
+                mThumbnail = thumbnail;
+                invalidate();
+            }
+        }
+
+        /**
+         * Method marks ghost of the window whose application failed to start
+         */
+        void setLaunchFailed(boolean failed) {
+            if (mLaunchFailed != failed) {
+                mLaunchFailed = failed;
+                invalidate();
+            }
+        }
+
+        /**
+         * Method removes the ghost from the layer
+         */
+        void release() {
+            unindex(this);
+            mGhosts.remove(this);
+            if (mTarget == this) {
+                mTarget = null;
+            }
+            mThumbnail = null;
+            invalidate();
+        }
+    }
+
+    public interface WindowRelayoutListener {
+        public void onWindowRelayout(Rect newPos);
+
+        /**
+         * Called when the ghost is touched, before any onWindowMoving()
+         */
+        public void onWindowMoveStarted();
+
+        /**
+         * Called for every move of the ghost before it is released.
+         * Rect is reused, it has to be copied if kept.
+         */
+        public void onWindowMoving(Rect pos);
+    }
+}
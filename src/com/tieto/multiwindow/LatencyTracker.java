@@ -0,0 +1,67 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.Arrays;
+
+/**
+ * Purpose of this class is to keep the latest latency samples and give
+ * their percentiles. Recording does not allocate.
+ */
+public class LatencyTracker {
+
+    private final long[] mSamples;
+    private final long[] mSorted;
+    private int mNext = 0;
+    private int mCount = 0;
+
+    public LatencyTracker(int capacity) {
+        mSamples = new long[capacity];
+        mSorted = new long[capacity];
+    }
+
+    /**
+     * Method records one sample, the oldest one is dropped when full
+     */
+    public synchronized void record(long nanos) {
+        mSamples[mNext] = nanos;
+        mNext = (mNext + 1) % mSamples.length;
+        if (mCount < mSamples.length) {
+            mCount++;
+        }
+    }
+
+    /**
+     * Returns given percentile (0-100) of the recorded samples in
+     * nanoseconds, or 0 if nothing has been recorded yet
+     */
+    public synchronized long getPercentile(int percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        System.arraycopy(mSamples, 0, mSorted, 0, mCount);
+        Arrays.sort(mSorted, 0, mCount);
+        int index = (mCount - 1) * percentile / 100;
+        return mSorted[index];
+    }
+
+    public synchronized int getCount() {
+        return mCount;
+    }
+}
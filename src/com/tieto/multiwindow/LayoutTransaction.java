@@ -0,0 +1,144 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.graphics.Rect;
+
+/**
+ * Class collects stack relayouts of one layout pass and hands them to the
+ * dispatcher at once. Relayouts requested outside of begin()/commit()
+ * are handed over immediately.
+ */
+public class LayoutTransaction {
+
+    private static final int INITIAL_CAPACITY = 8;
+    private final StackDispatcher mDispatcher;
+    private int[] mStackIds = new int[INITIAL_CAPACITY];
+    private Rect[] mRects = new Rect[INITIAL_CAPACITY];
+    private int mCount = 0;
+    private int mDepth = 0;
+    private int mFlushCount = 0;
+
+    public LayoutTransaction(StackDispatcher dispatcher) {
+        mDispatcher = dispatcher;
+        for (int i = 0; i < mRects.length; i++) {
+            mRects[i] = new Rect();
+        }
+    }
+
+    /**
+     * Method opens transaction. Transactions can be nested, relayouts are
+     * sent when the outermost one is committed.
+     */
+    public void begin() {
+        mDepth++;
+    }
+
+    /**
+     * Method closes transaction and flushes collected relayouts
+     */
+    public void commit() {
+        if (mDepth == 0) {
+            throw new IllegalStateException("commit() called without begin()");
+        }
+        mDepth--;
+        if (mDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Method queues relayout of the stack. Rect is copied, so caller can
+     * reuse it right after the call.
+     */
+    public void relayoutWindow(int stackId, Rect r) {
+        if (mCount == mStackIds.length) {
+            grow();
+        }
+        mStackIds[mCount] = stackId;
+        mRects[mCount].set(r);
+        mCount++;
+        if (mDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Method removes the stack. Its relayouts collected in the open
+     * transaction are dropped, so they can't reach the service after it.
+     */
+    public void removeWindow(int stackId) {
+        int count = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mStackIds[i] != stackId) {
+                if (count != i) {
+                    mStackIds[count] = mStackIds[i];
+                    mRects[count].set(mRects[i]);
+                }
+                count++;
+            }
+        }
+        mCount = count;
+        mDispatcher.removeWindow(stackId);
+    }
+
+    /**
+     * Method queues creation of a stack at the given position, callback
+     * gets its id on the UI thread. Relayouts collected so far are not
+     * affected.
+     */
+    public void createWindow(Rect position, StackDispatcher.CreateCallback callback) {
+        mDispatcher.createWindow(position, callback);
+    }
+
+    /**
+     * Returns how many times relayouts were handed to the dispatcher
+     */
+    public int getFlushCount() {
+        return mFlushCount;
+    }
+
+    /**
+     * Returns round-trip latencies of the relayout calls
+     */
+    public LatencyTracker getLatencyTracker() {
+        return mDispatcher.getLatencyTracker();
+    }
+
+    private void flush() {
+        if (mCount == 0) {
+            return;
+        }
+        mDispatcher.relayoutWindows(mStackIds, mRects, mCount);
+        mCount = 0;
+        mFlushCount++;
+    }
+
+    private void grow() {
+        int[] stackIds = new int[mStackIds.length * 2];
+        Rect[] rects = new Rect[mRects.length * 2];
+        System.arraycopy(mStackIds, 0, stackIds, 0, mCount);
+        System.arraycopy(mRects, 0, rects, 0, mCount);
+        for (int i = mCount; i < rects.length; i++) {
+            rects[i] = new Rect();
+        }
+        mStackIds = stackIds;
+        mRects = rects;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import android.util.Log;
+
+/**
+ * Purpose of this class is to report objects which have been garbage
+ * collected without being released. It only logs, it never tries to clean
+ * up after the leaked object.
+ */
+final class LeakDetector {
+
+    private static final String TAG = "TMW";
+    private static final ReferenceQueue<Object> sQueue = new ReferenceQueue<Object>();
+
+    /**
+     * Trackers have to stay strongly reachable until released or enqueued
+     */
+    private static final Set<Tracker> sTrackers = Collections.synchronizedSet(new HashSet<Tracker>());
+
+    static {
+        Thread t = new Thread("TMW-leak-detector") {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        Tracker tracker = (Tracker) sQueue.remove();
+                        sTrackers.remove(tracker);
+                        Log.w(TAG, "Leaked " + tracker.mName + ", it was never released");
+                    } catch (InterruptedException e) {
+                        // keep watching
+                    }
+                }
+            }
+        };
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private LeakDetector() {
+    }
+
+    /**
+     * Method starts tracking of the owner. Tracker has to be released when
+     * the owner is torn down, otherwise leak is reported.
+     */
+    static Tracker track(Object owner, String name) {
+        Tracker tracker = new Tracker(owner, name);
+        sTrackers.add(tracker);
+        return tracker;
+    }
+
+    static final class Tracker extends PhantomReference<Object> {
+        private final String mName;
+
+        private Tracker(Object owner, String name) {
+            super(owner, sQueue);
+            mName = name;
+        }
+
+        /**
+         * Method marks owner as properly released
+         */
+        void release() {
+            sTrackers.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.io.PrintWriter;
+
+/**
+ * Registry of the layout engine metrics. All counters and histograms are
+ * allocated up front (per stack ones when the stack is created), so that
+ * recording neither allocates nor builds strings. Recording is a no-op
+ * when metrics are disabled. Methods are synchronized, as relayouts are
+ * recorded on the dispatcher thread.
+ */
+final class Metrics {
+
+    /**
+     * Histogram of durations with power of two buckets in microseconds.
+     * Bucket i holds durations shorter than 2^i us, the last one the rest.
+     */
+    static final class Histogram {
+        private static final int BUCKETS = 24;
+        private final String mName;
+        private final long[] mBuckets = new long[BUCKETS];
+        private long mCount = 0;
+        private long mSumNanos = 0;
+        private long mMaxNanos = 0;
+
+        Histogram(String name) {
+            mName = name;
+        }
+
+        synchronized void record(long nanos) {
+            if (!sEnabled) {
+                return;
+            }
+            long us = nanos / 1000;
+            int bucket = us <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(us));
+            mBuckets[bucket]++;
+            mCount++;
+            mSumNanos += nanos;
+            if (nanos > mMaxNanos) {
+                mMaxNanos = nanos;
+            }
+        }
+
+        synchronized long getCount() {
+            return mCount;
+        }
+
+        /**
+         * Returns upper bound (in us) of the bucket holding given percentile
+         */
+        synchronized long getPercentileUs(int percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long target = (mCount * percentile + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += mBuckets[i];
+                if (seen >= target) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        synchronized void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                mBuckets[i] = 0;
+            }
+            mCount = 0;
+            mSumNanos = 0;
+            mMaxNanos = 0;
+        }
+
+        synchronized void dump(String prefix, PrintWriter writer) {
+            writer.print(prefix); writer.print(mName);
+            writer.print(": count="); writer.print(mCount);
+            if (mCount > 0) {
+                writer.print(" avg_us="); writer.print(mSumNanos / mCount / 1000);
+                writer.print(" p50_us<="); writer.print(getPercentileUs(50));
+                writer.print(" p90_us<="); writer.print(getPercentileUs(90));
+                writer.print(" p99_us<="); writer.print(getPercentileUs(99));
+                writer.print(" max_us="); writer.print(mMaxNanos / 1000);
+            }
+            writer.println();
+        }
+    }
+
+    /**
+     * Metrics of one window stack
+     */
+    static final class StackStats {
+        final Histogram mRelayout = new Histogram("relayout ipc");
+        long mLaunchNanos = -1;
+    }
+
+    private static volatile boolean sEnabled = true;
+
+    static final Histogram RELAYOUT = new Histogram("relayout ipc");
+    static final Histogram TOUCH_TO_RELAYOUT = new Histogram("touch to relayout");
+    static final Histogram LAUNCH = new Histogram("app launch");
+    static final Histogram TAB_SWITCH = new Histogram("tab switch");
+    static final Histogram WORKSPACE_LOAD = new Histogram("workspace load");
+
+    private static final StackIdMap<StackStats> sStacks = new StackIdMap<StackStats>();
+
+    private Metrics() {
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * Method preallocates metrics of the new stack
+     */
+    static synchronized void onStackCreated(int stackId) {
+        sStacks.put(stackId, new StackStats());
+    }
+
+    static synchronized void onStackRemoved(int stackId) {
+        sStacks.remove(stackId);
+    }
+
+    /**
+     * Method records relayout of the stack which took given time. Stacks
+     * relayouted in one batch get the whole batch time each.
+     */
+    static synchronized void recordRelayout(int stackId, long nanos) {
+        if (!sEnabled) {
+            return;
+        }
+        StackStats stats = sStacks.get(stackId);
+        if (stats != null) {
+            stats.mRelayout.record(nanos);
+        }
+    }
+
+    static synchronized void recordLaunch(int stackId, long nanos) {
+        if (!sEnabled) {
+            return;
+        }
+        LAUNCH.record(nanos);
+        StackStats stats = sStacks.get(stackId);
+        if (stats != null) {
+            stats.mLaunchNanos = nanos;
+        }
+    }
+
+    /**
+     * Method resets the global histograms, per stack metrics are kept
+     */
+    static void reset() {
+        RELAYOUT.reset();
+        TOUCH_TO_RELAYOUT.reset();
+        LAUNCH.reset();
+        TAB_SWITCH.reset();
+        WORKSPACE_LOAD.reset();
+    }
+
+    /**
+     * Method dumps the global histograms. Arguments passed to dumpsys
+     * control recording: --metrics-on and --metrics-off switch it before
+     * the dump, --metrics-reset starts the histograms over after it.
+     */
+    static void dump(String prefix, PrintWriter writer, String[] args) {
+        boolean reset = false;
+        if (args != null) {
+            for (String arg : args) {
+                if ("--metrics-on".equals(arg)) {
+                    setEnabled(true);
+                } else if ("--metrics-off".equals(arg)) {
+                    setEnabled(false);
+                } else if ("--metrics-reset".equals(arg)) {
+                    reset = true;
+                }
+            }
+        }
+        writer.print(prefix); writer.print("metrics enabled="); writer.println(sEnabled);
+        RELAYOUT.dump(prefix, writer);
+        TOUCH_TO_RELAYOUT.dump(prefix, writer);
+        LAUNCH.dump(prefix, writer);
+        TAB_SWITCH.dump(prefix, writer);
+        WORKSPACE_LOAD.dump(prefix, writer);
+        if (reset) {
+            reset();
+        }
+    }
+
+    /**
+     * Method dumps metrics of one stack, if they are kept
+     */
+    static synchronized void dumpStack(int stackId, String prefix, PrintWriter writer) {
+        StackStats stats = sStacks.get(stackId);
+        if (stats == null) {
+            return;
+        }
+        writer.print(prefix); writer.print("stack "); writer.print(stackId);
+        writer.print(" launch_us="); writer.println(stats.mLaunchNanos < 0 ? -1 : stats.mLaunchNanos / 1000);
+        stats.mRelayout.dump(prefix + "  ", writer);
+    }
+}
@@ -18,6 +18,9 @@
 
 package com.tieto.multiwindow;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.os.Bundle;
 import android.os.RemoteException;
 import android.app.Activity;
@@ -36,40 +39,68 @@ import android.widget.Toast;
 
 import com.tieto.multiwindow.ResizeLayer.ResizeLayerListener;
 
-import java.util.ArrayList;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 public class MultiWindow extends Activity {
 
     private static final IActivityManager mService = ActivityManagerNative.getDefault();
     private static final String TAG = "TMW";
+    private static final boolean DEBUG = false;
     private Rect mDisplaySize = new Rect();
     private ResizeLayer mSlidingPanel = null;
     State mState = new State();
     private int mMultiwindowAppStackId;
+    private int mMainWindowStackId;
+    private StackDispatcher mStackDispatcher;
+    private LayoutTransaction mLayoutTransaction;
+    private AppLaunchExecutor mAppLauncher;
+    private StackPool mStackPool;
+    private ThumbnailCache mThumbnailCache;
+    private WorkspaceStore mWorkspaceStore;
     private int mFormerPosition;
     private int mMinPos;
     private int mMaxPos;
     private TabContainer mTabContainer;
-    private ViewGroup mGhostLayer;
+    private GhostLayer mGhostLayer;
+
+    /**
+     * Buffers for the areas computed by setPosition
+     */
+    private final int[] mPanelLayout = new int[PanelLayout.SIZE];
+    private final Rect mCornerstoneRect = new Rect();
+    private final Rect mLauncherRect = new Rect();
+    private final Rect mSentLauncherRect = new Rect();
+    private final Rect mContentRect = new Rect();
+
+    /**
+     * Snap points of the docked divider, null if snapping is disabled
+     */
+    private SnapPoints mSnapPoints = null;
+    private ValueAnimator mSettleAnimator = null;
 
     /**
      * Implementation of the onRemovedMethod
      */
     private final IMultiwindowManager.Stub mMultiwindowBinder = new IMultiwindowManager.Stub() {
         public void onWindowRemoved(final int stackId) {
-            Log.v(TAG,"onWindowRemoved caught. StackId: " + stackId);
+            if (DEBUG) {
+                Log.v(TAG,"onWindowRemoved caught. StackId: " + stackId);
+            }
             mSlidingPanel.post(new Runnable() {
                 @Override
                 public void run() {
                     mTabContainer.removeWindow(stackId);
-                    if (mState.mExpanded && mTabContainer.currentTabWindowCount() == 0) {
-                        setPosition(mState.mRightSide ? mDisplaySize.right : mDisplaySize.left);
+                    if (mState.isExpanded() && mTabContainer.currentTabWindowCount() == 0) {
+                        setPosition(mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left);
                     }
                 }
             });
         }
         public void onWindowRelayout(final int stackId, Rect r) {
-            Log.v(TAG,"onWindowRelayout caught. StackId: " + stackId + " " + r);
+            if (DEBUG) {
+                Log.v(TAG,"onWindowRelayout caught. StackId: " + stackId + " " + r);
+            }
             final Rect rect = r;
             mSlidingPanel.post(new Runnable() {
                 @Override
@@ -95,37 +126,112 @@ public class MultiWindow extends Activity {
         mMinPos = metrics.widthPixels/4;
         mMaxPos = metrics.widthPixels/2;
         mFormerPosition = mDisplaySize.right - mMinPos;
-        GhostView.OFFSET_X = mDisplaySize.left;
-        GhostView.OFFSET_Y = mDisplaySize.top;
+        if (getResources().getBoolean(R.bool.divider_snapping)) {
+            mSnapPoints = new SnapPoints(metrics.widthPixels,
+                    getResources().getIntArray(R.array.divider_snap_ratios), mMinPos, mMaxPos);
+        }
+        GhostLayer.OFFSET_X = mDisplaySize.left;
+        GhostLayer.OFFSET_Y = mDisplaySize.top;
         mSlidingPanel = (ResizeLayer) findViewById(R.id.resize_layer);
         mSlidingPanel.setResizingEnabled(false);
 
+        mStackDispatcher = new StackDispatcher(new ActivityManagerStackService(mService));
+        mLayoutTransaction = new LayoutTransaction(mStackDispatcher);
+        mAppLauncher = new AppLaunchExecutor(this);
+        mStackPool = new StackPool(mStackDispatcher, getResources().getInteger(R.integer.stack_pool_size),
+                metrics.widthPixels / 2, metrics.heightPixels / 2);
+        mThumbnailCache = new ThumbnailCache(getResources().getInteger(R.integer.thumbnail_cache_kb) * 1024,
+                getResources().getInteger(R.integer.thumbnail_scale_percent));
         if (mTabContainer == null) {
-            mTabContainer = new TabContainer(mState, this, (ViewGroup) findViewById(R.id.tab_buttons));
+            mTabContainer = new TabContainer(mState, this, (ViewGroup) findViewById(R.id.tab_buttons),
+                    mLayoutTransaction, mAppLauncher, mStackPool, mThumbnailCache);
         } else {
             Log.e(TAG,"mTabContainer was initialized before...");
         }
 
+        mGhostLayer = (GhostLayer) findViewById(R.id.ghost_layer);
+
         try {
             mMultiwindowAppStackId = mService.getCornerstoneWindowStackId();
-            setPosition(mDisplaySize.right);
+            mMainWindowStackId = mService.getMainWindowStackId();
         } catch (RemoteException e) {
             Log.e(TAG, e.toString());
         }
 
+        mWorkspaceStore = new WorkspaceStore(this, new WorkspaceStore.Source() {
+            @Override
+            public WorkspaceStore.Snapshot getSnapshot() {
+                return createSnapshot();
+            }
+        });
+        WorkspaceStore.Snapshot snapshot = mWorkspaceStore.load();
+        if (snapshot != null) {
+            restoreWorkspace(snapshot);
+        }
+        mTabContainer.setOnTabsChangedListener(new Runnable() {
+            @Override
+            public void run() {
+                mWorkspaceStore.markDirty();
+            }
+        });
+        mState.addStateChangedListener(new StateChangedListener() {
+            @Override
+            public void onStateChanged(int changedFlags, int flags) {
+                if ((changedFlags & (State.FLAG_DOCKED | State.FLAG_RIGHT_SIDE | State.FLAG_EXPANDED)) != 0) {
+                    mWorkspaceStore.markDirty();
+                }
+            }
+        });
+        if (mState.isExpanded() && mTabContainer.currentTabWindowCount() != 0) {
+            setPosition(mFormerPosition);
+        } else {
+            setPosition(mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left);
+        }
+
         mSlidingPanel.setResizeLayerListener(new ResizeLayerListener() {
             @Override
-            public void onResizeEvent(int x_pos) {
+            public boolean onResizeEvent(int x_pos) {
                 // If resizing is disable, onResizeEvent is not called
-                resizeSlidingPanel(x_pos);
+                return resizeSlidingPanel(x_pos);
+            }
+
+            @Override
+            public void onResizeFinished(int x_pos) {
+                if (!settleSlidingPanel()) {
+                    mTabContainer.setDragging(false);
+                }
+                // divider position is saved once the drag is over
+                mWorkspaceStore.markDirty();
+            }
+        });
+        mSlidingPanel.setDividerListener(new ResizeLayer.DividerListener() {
+            private int mDivider = -1;
+
+            @Override
+            public boolean onDividerDragStarted(int x, int y, boolean vertical) {
+                mDivider = mTabContainer.dividerAt(x, y, vertical);
+                if (mDivider == -1) {
+                    return false;
+                }
+                mTabContainer.setDragging(true);
+                return true;
+            }
+
+            @Override
+            public void onDividerDragged(int delta) {
+                mTabContainer.moveDivider(mDivider, delta);
+            }
+
+            @Override
+            public void onDividerDragFinished() {
+                mTabContainer.setDragging(false);
             }
         });
-        mGhostLayer = (ViewGroup)findViewById(R.id.ghost_layer);
 
         // mMultiwindowBinder becomes our default MultiwindowManager. Required for window removal callback
         try{
             mService.setMultiwindowManager(mMultiwindowBinder);
-            mService.setMultiwindowRelayoutRestriction(mState.mDockedMode);
+            mService.setMultiwindowRelayoutRestriction(mState.isDockedMode());
         } catch (RemoteException e){
             e.printStackTrace();
         }
@@ -136,8 +242,59 @@ public class MultiWindow extends Activity {
     public void onDestroy() {
         super.onDestroy();
         Log.v(TAG, "onDestroy");
+        if (mWorkspaceStore != null) {
+            mWorkspaceStore.close();
+        }
         if (mTabContainer != null) {
-            mTabContainer.clearAll();
+            mTabContainer.clearAll(mStackDispatcher);
+        }
+        if (mStackPool != null) {
+            mStackPool.clear();
+        }
+        if (mStackDispatcher != null) {
+            mStackDispatcher.quit();
+        }
+        if (mAppLauncher != null) {
+            mAppLauncher.shutdown();
+        }
+        if (mThumbnailCache != null) {
+            mThumbnailCache.quit();
+        }
+    }
+
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix); writer.println("TietoMultiWindow:");
+        writer.print(prefix); writer.print("  relayouts issued="); writer.print(Window.getIssuedRelayoutCount());
+        writer.print(" skipped="); writer.println(Window.getSkippedRelayoutCount());
+        writer.print(prefix); writer.print("  ghost draw passes="); writer.print(GhostLayer.getDrawPassCount());
+        writer.print(" hit tests="); writer.print(GhostLayer.getHitTestCount());
+        writer.print(" candidates="); writer.println(GhostLayer.getHitCandidateCount());
+        if (mLayoutTransaction != null) {
+            writer.print(prefix); writer.print("  layout flushes="); writer.println(mLayoutTransaction.getFlushCount());
+        }
+        if (mStackDispatcher != null) {
+            mStackDispatcher.dump(prefix + "  ", writer);
+        }
+        if (mStackPool != null) {
+            mStackPool.dump(prefix + "  ", writer);
+        }
+        if (mThumbnailCache != null) {
+            writer.print(prefix); writer.print("  thumbnails bytes="); writer.print(mThumbnailCache.size());
+            writer.print("/"); writer.println(mThumbnailCache.maxSize());
+        }
+        Metrics.dump(prefix + "  ", writer, args);
+        if (mTabContainer != null) {
+            mTabContainer.dump(prefix + "  ", writer);
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (mStackPool != null) {
+            mStackPool.trim(level);
         }
     }
 
@@ -160,7 +317,7 @@ public class MultiWindow extends Activity {
             CharSequence text = getText(R.string.maxNoOfWindows);
             showMessage(text);
         }
-        if (mState.mExpanded && mTabContainer.currentTabWindowCount() == 1) {
+        if (mState.isExpanded() && mTabContainer.currentTabWindowCount() == 1) {
             setPosition(mFormerPosition);
         }
     }
@@ -171,20 +328,20 @@ public class MultiWindow extends Activity {
      */
     public void onToggle(View v) {
         int position;
-        if (!mState.mDockedMode) {
-            mState.mFloatingEdit = !mState.mFloatingEdit;
-            position = mState.mRightSide ? mDisplaySize.right : mDisplaySize.left;
+        if (!mState.isDockedMode()) {
+            mState.toggle(State.FLAG_FLOATING_EDIT);
+            position = mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left;
         } else {
-            mState.mExpanded = !mState.mExpanded;
-            mSlidingPanel.setResizingEnabled(mState.mExpanded);
-            if (mState.mExpanded && mTabContainer.currentTabWindowCount() != 0) {
+            mState.toggle(State.FLAG_EXPANDED);
+            mSlidingPanel.setResizingEnabled(mState.isExpanded());
+            if (mState.isExpanded() && mTabContainer.currentTabWindowCount() != 0) {
                 position = mFormerPosition;
             } else {
-                if (mState.mExpanded) {
+                if (mState.isExpanded()) {
                     CharSequence text = getText(R.string.cant_expand_no_window);
                     showMessage(text);
                 }
-                position = mState.mRightSide ? mDisplaySize.right : mDisplaySize.left;
+                position = mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left;
             }
         }
         setPosition(position);
@@ -194,20 +351,34 @@ public class MultiWindow extends Activity {
      * Method changes app operation modes between DOCKED_RIGHT and DOCKED_LEFT side
      */
     public void onModeChange(View v) {
-        mState.mRightSide = !mState.mRightSide;
+        mState.toggle(State.FLAG_RIGHT_SIDE);
         int new_pos;
         new_pos = mDisplaySize.right - mFormerPosition;
         mFormerPosition = new_pos;
+        applySide();
+        if (!mState.isExpanded() || mTabContainer.currentTabWindowCount() == 0) {
+            new_pos = mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left;
+        }
+        if (DEBUG) {
+            Log.v(TAG,"setting position: " + new_pos);
+        }
+        setPosition(new_pos);
+    }
+
+    /**
+     * Method places sliding panel and ghost layer on the side given by the state
+     */
+    private void applySide() {
         LayoutParams ghostLp = (LayoutParams) mGhostLayer.getLayoutParams();
         LayoutParams slidingLp = (LayoutParams) mSlidingPanel.getLayoutParams();
-        if (mState.mRightSide) {
+        if (mState.isRightSide()) {
             ghostLp.removeRule(RelativeLayout.ALIGN_PARENT_RIGHT);
             ghostLp.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
             ghostLp.removeRule(RelativeLayout.RIGHT_OF);
             ghostLp.addRule(RelativeLayout.LEFT_OF, mSlidingPanel.getId());
             slidingLp.removeRule(RelativeLayout.ALIGN_PARENT_LEFT);
             slidingLp.addRule(RelativeLayout.ALIGN_PARENT_RIGHT);
-            GhostView.OFFSET_X = 0;
+            GhostLayer.OFFSET_X = 0;
         } else {
             ghostLp.removeRule(RelativeLayout.ALIGN_PARENT_LEFT);
             ghostLp.addRule(RelativeLayout.ALIGN_PARENT_RIGHT);
@@ -215,15 +386,10 @@ public class MultiWindow extends Activity {
             ghostLp.addRule(RelativeLayout.RIGHT_OF, mSlidingPanel.getId());
             slidingLp.removeRule(RelativeLayout.ALIGN_PARENT_RIGHT);
             slidingLp.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
-            GhostView.OFFSET_X = mSlidingPanel.getWidth();
+            GhostLayer.OFFSET_X = mSlidingPanel.getLayoutParams().width;
         }
         mGhostLayer.setLayoutParams(ghostLp);
         mSlidingPanel.setLayoutParams(slidingLp);
-        if (!mState.mExpanded || mTabContainer.currentTabWindowCount() == 0) {
-            new_pos = mState.mRightSide ? mDisplaySize.right : mDisplaySize.left;
-        }
-        Log.v(TAG,"setting position: " + new_pos);
-        setPosition(new_pos);
     }
 
     /**
@@ -232,26 +398,23 @@ public class MultiWindow extends Activity {
     public void onEditModeChange(View v) {
         // onEditModeChange
         int new_pos;
-        if (mState.mDockedMode) {
+        if (mState.isDockedMode()) {
             //got into floating mode
             mSlidingPanel.setResizingEnabled(false);
-            mState.mDockedMode = false;
-            mState.mExpanded = false;
-            mState.mFloatingEdit = false;
-            new_pos = mState.mRightSide ? mDisplaySize.right : mDisplaySize.left;
+            mState.setFlags(State.FLAG_DOCKED | State.FLAG_EXPANDED | State.FLAG_FLOATING_EDIT, 0);
+            new_pos = mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left;
             Log.v(TAG,"Switching from DOCKED to FLOATING");
         } else {
             //got into expanded, docked mode
             mSlidingPanel.setResizingEnabled(true);
-            mState.mDockedMode = true;
-            mState.mExpanded = true;
-            mState.mFloatingEdit = false;
-            new_pos = mState.mRightSide ? mDisplaySize.right - mMinPos : mDisplaySize.left + mMinPos;
+            mState.setFlags(State.FLAG_DOCKED | State.FLAG_EXPANDED | State.FLAG_FLOATING_EDIT,
+                    State.FLAG_DOCKED | State.FLAG_EXPANDED);
+            new_pos = mState.isRightSide() ? mDisplaySize.right - mMinPos : mDisplaySize.left + mMinPos;
             mFormerPosition = new_pos;
             Log.v(TAG,"Switching from FLOATING to DOCKED");
         }
         try {
-            mService.setMultiwindowRelayoutRestriction(mState.mDockedMode);
+            mService.setMultiwindowRelayoutRestriction(mState.isDockedMode());
         } catch (RemoteException e) {
             Log.e(TAG, e.toString());
         }
@@ -266,29 +429,37 @@ public class MultiWindow extends Activity {
             CharSequence text = getText(R.string.tooManyTabs);
             showMessage(text);
         } else {
-            if (mState.mDockedMode) {
+            if (mState.isDockedMode()) {
                 mTabContainer.addWindow(mGhostLayer);
             }
         }
     }
 
     public void onGhostLayerClick(View v) {
-        if (!mState.mFloatingEdit) {
+        if (!mState.isFloatingEdit()) {
             return;
         }
-        mState.mFloatingEdit = false;
-        setPosition(mState.mRightSide ? mDisplaySize.right : mDisplaySize.left);
+        mState.setFlags(State.FLAG_FLOATING_EDIT, 0);
+        setPosition(mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left);
     }
 
     /**
-     * Method handles touch-resize and sets sliding bar as well as windows into new positions
+     * Method handles touch-resize and sets sliding bar as well as windows into new positions.
+     * With snapping enabled, the bar follows the finger while windows are resized
+     * only when the nearest snap point changes. Returns false if the panel
+     * is not resized in the current mode.
      */
-    private void resizeSlidingPanel(int x_pos) {
-        if (!mState.mDockedMode || !mState.mExpanded) {
-            return;
+    private boolean resizeSlidingPanel(int x_pos) {
+        if (!mState.isDockedMode() || !mState.isExpanded()) {
+            return false;
+        }
+        if (mSettleAnimator != null) {
+            mSettleAnimator.cancel();
         }
+        // thumbnails are not captured until the drag is over
+        mTabContainer.setDragging(true);
         int new_pos = mFormerPosition;
-        if (mState.mRightSide) {
+        if (mState.isRightSide()) {
             if (x_pos > mDisplaySize.right - mMinPos) {
                 new_pos = mDisplaySize.right - mMinPos;
             } else if (x_pos < mDisplaySize.right - mMaxPos) {
@@ -305,92 +476,146 @@ public class MultiWindow extends Activity {
                 new_pos = x_pos;
             }
         }
-        setPosition(new_pos);
+        setPosition(new_pos, snapPosition(new_pos));
         mFormerPosition = new_pos;
+        return true;
     }
 
     /**
-     * Sets position of the sliding bar depending on WorkingMode
+     * Method animates sliding bar from where it was released to the nearest
+     * snap point. Returns false if the bar is there already. Tab container
+     * is told the drag is over once the animation ends.
      */
-    private void setPosition(int x_pos) {
-        try {
-            Rect rmw, rlaun, rcont;
-            rmw = new Rect(mDisplaySize);
-            rlaun = new Rect(mDisplaySize);
-            rcont = new Rect(mDisplaySize);
-            int width = mSlidingPanel.getLayoutParams().width;
-            if (mTabContainer.currentTabWindowCount() == 0) {
-                x_pos = mState.mRightSide ? mDisplaySize.right : mDisplaySize.left;
+    private boolean settleSlidingPanel() {
+        if (!mState.isDockedMode() || !mState.isExpanded() || mSnapPoints == null) {
+            return false;
+        }
+        final int target = snapPosition(mFormerPosition);
+        if (target == mFormerPosition) {
+            return false;
+        }
+        if (mSettleAnimator != null) {
+            mSettleAnimator.cancel();
+        }
+        mSettleAnimator = ValueAnimator.ofInt(mFormerPosition, target);
+        mSettleAnimator.setDuration(getResources().getInteger(R.integer.divider_settle_duration_ms));
+        mSettleAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                setPosition((Integer) animation.getAnimatedValue(), target);
             }
-            if (mState.mRightSide) {
-                rlaun.right = x_pos - width;
-                if (!mState.mFloatingEdit) {
-                    rmw.left = x_pos - width;
-                }
-                rmw.right = x_pos;
-                if (!mState.mDockedMode) {
-                    rcont.right = x_pos - width;
-                } else {
-                    if (!mState.mExpanded) {
-                        rcont.right = x_pos + rcont.width();
-                    }
-                    rcont.left = x_pos;
-                }
-            } else { //MultiWindow on left
-                rlaun.left = x_pos + width;
-                rmw.left = x_pos;
-                if (!mState.mFloatingEdit) {
-                    rmw.right = x_pos + width;
-                }
-                if (!mState.mDockedMode) {
-                    rcont.left = x_pos + width;
-                } else {
-                    if (!mState.mExpanded) {
-                        rcont.left = x_pos - rcont.width();
-                    }
-                    rcont.right = x_pos;
-                }
+        });
+        mSettleAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mTabContainer.setDragging(false);
             }
-            mState.stateChanged();
-            mService.relayoutWindow(mMultiwindowAppStackId, rmw);
-            mService.relayoutWindow(mService.getMainWindowStackId(), rlaun);
-            mTabContainer.relayoutWindows(rcont);
-        } catch (RemoteException e) {
-            Log.e(TAG, e.toString());
+        });
+        mFormerPosition = target;
+        mSettleAnimator.start();
+        return true;
+    }
+
+    /**
+     * Returns position of the snap point nearest to x_pos, or x_pos if
+     * snapping is disabled
+     */
+    private int snapPosition(int x_pos) {
+        if (mSnapPoints == null) {
+            return x_pos;
+        }
+        if (mState.isRightSide()) {
+            return mDisplaySize.right - mSnapPoints.snap(mDisplaySize.right - x_pos);
         }
+        return mDisplaySize.left + mSnapPoints.snap(x_pos - mDisplaySize.left);
     }
 
     /**
-     * Purpose of this class is to hold application state
+     * Sets position of the sliding bar depending on WorkingMode.
+     * Areas are computed by PanelLayout and all stacks are relayouted
+     * in one layout transaction.
      */
-    class State {
-        /**
-         * List contains information about who wants to get notification
-         * that state has changed
-         */
-        private ArrayList<StateChangedListener> mStateChangedListenerList = new ArrayList<StateChangedListener>();
-        boolean mDockedMode = true;
-        boolean mRightSide = true;
-        boolean mExpanded = false;
-        boolean mFloatingEdit = false;
-
-        void stateChanged() {
-            for (StateChangedListener sc : mStateChangedListenerList ) {
-                sc.onStateChanged();
-            }
+    private void setPosition(int x_pos) {
+        if (mSettleAnimator != null) {
+            mSettleAnimator.cancel();
         }
+        setPosition(x_pos, x_pos);
+    }
 
-        void addStateChangedListener(StateChangedListener sc) {
-            mStateChangedListenerList.add(sc);
+    /**
+     * Sets sliding bar to x_pos while content windows are laid out as if
+     * it was at content_pos
+     */
+    private void setPosition(int x_pos, int content_pos) {
+        int width = mSlidingPanel.getLayoutParams().width;
+        if (mTabContainer.currentTabWindowCount() == 0) {
+            x_pos = mState.isRightSide() ? mDisplaySize.right : mDisplaySize.left;
+            content_pos = x_pos;
         }
+        PanelLayout.compute(mDisplaySize.left, mDisplaySize.top, mDisplaySize.right, mDisplaySize.bottom,
+                width, mState.isRightSide(), mState.isDockedMode(), mState.isExpanded(), mState.isFloatingEdit(),
+                x_pos, mPanelLayout);
+        setRect(mCornerstoneRect, PanelLayout.CORNERSTONE);
+        // only the panel follows the finger, launcher stays next to the content
+        if (content_pos != x_pos) {
+            PanelLayout.compute(mDisplaySize.left, mDisplaySize.top, mDisplaySize.right, mDisplaySize.bottom,
+                    width, mState.isRightSide(), mState.isDockedMode(), mState.isExpanded(), mState.isFloatingEdit(),
+                    content_pos, mPanelLayout);
+        }
+        setRect(mLauncherRect, PanelLayout.LAUNCHER);
+        setRect(mContentRect, PanelLayout.CONTENT);
+        mLayoutTransaction.begin();
+        try {
+            mLayoutTransaction.relayoutWindow(mMultiwindowAppStackId, mCornerstoneRect);
+            if (!mLauncherRect.equals(mSentLauncherRect)) {
+                mLayoutTransaction.relayoutWindow(mMainWindowStackId, mLauncherRect);
+                mSentLauncherRect.set(mLauncherRect);
+            }
+            mTabContainer.relayoutWindows(mContentRect);
+        } finally {
+            mLayoutTransaction.commit();
+        }
+    }
 
-        void removeStateChangedListener(StateChangedListener sc) {
-            mStateChangedListenerList.remove(sc);
+    /**
+     * Returns snapshot of the current workspace
+     */
+    private WorkspaceStore.Snapshot createSnapshot() {
+        WorkspaceStore.Snapshot snapshot = new WorkspaceStore.Snapshot();
+        snapshot.mFlags = (mState.isDockedMode() ? WorkspaceStore.FLAG_DOCKED : 0)
+                | (mState.isRightSide() ? WorkspaceStore.FLAG_RIGHT_SIDE : 0)
+                | (mState.isExpanded() ? WorkspaceStore.FLAG_EXPANDED : 0);
+        snapshot.mDividerPosition = mFormerPosition;
+        mTabContainer.saveTo(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Method brings back state, divider position, tabs and windows from the snapshot
+     */
+    private void restoreWorkspace(WorkspaceStore.Snapshot snapshot) {
+        boolean docked = (snapshot.mFlags & WorkspaceStore.FLAG_DOCKED) != 0;
+        int flags = 0;
+        if (docked) {
+            flags |= State.FLAG_DOCKED;
+            if ((snapshot.mFlags & WorkspaceStore.FLAG_EXPANDED) != 0) {
+                flags |= State.FLAG_EXPANDED;
+            }
+        }
+        if ((snapshot.mFlags & WorkspaceStore.FLAG_RIGHT_SIDE) != 0) {
+            flags |= State.FLAG_RIGHT_SIDE;
         }
+        mState.setFlags(State.FLAG_ALL, flags);
+        int min = mState.isRightSide() ? mDisplaySize.right - mMaxPos : mDisplaySize.left + mMinPos;
+        int max = mState.isRightSide() ? mDisplaySize.right - mMinPos : mDisplaySize.left + mMaxPos;
+        mFormerPosition = Math.max(min, Math.min(max, snapshot.mDividerPosition));
+        mSlidingPanel.setResizingEnabled(mState.isDockedMode() && mState.isExpanded());
+        applySide();
+        mTabContainer.restoreFrom(snapshot, mGhostLayer);
     }
 
-    interface StateChangedListener {
-        public void onStateChanged();
+    private void setRect(Rect r, int offset) {
+        r.set(mPanelLayout[offset], mPanelLayout[offset + 1], mPanelLayout[offset + 2], mPanelLayout[offset + 3]);
     }
 
     private void showMessage(CharSequence message) {
@@ -0,0 +1,89 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+/**
+ * Layout of the sliding panel (cornerstone), launcher and content areas
+ * for the given divider position. Class does not depend on Android and
+ * does not allocate, results are written into caller's array as left, top,
+ * right, bottom of every area, at the offsets given below.
+ */
+final class PanelLayout {
+
+    static final int CORNERSTONE = 0;
+    static final int LAUNCHER = 4;
+    static final int CONTENT = 8;
+
+    /**
+     * Size of the array compute() writes to
+     */
+    static final int SIZE = 12;
+
+    private PanelLayout() {
+    }
+
+    /**
+     * Method computes areas for the display bounds, panel width, state flags
+     * and divider position x_pos.
+     */
+    static void compute(int left, int top, int right, int bottom, int width,
+            boolean rightSide, boolean dockedMode, boolean expanded, boolean floatingEdit,
+            int x_pos, int[] out) {
+        set(out, CORNERSTONE, left, top, right, bottom);
+        set(out, LAUNCHER, left, top, right, bottom);
+        set(out, CONTENT, left, top, right, bottom);
+        int displayWidth = right - left;
+        if (rightSide) {
+            out[LAUNCHER + 2] = x_pos - width;
+            if (!floatingEdit) {
+                out[CORNERSTONE] = x_pos - width;
+            }
+            out[CORNERSTONE + 2] = x_pos;
+            if (!dockedMode) {
+                out[CONTENT + 2] = x_pos - width;
+            } else {
+                if (!expanded) {
+                    out[CONTENT + 2] = x_pos + displayWidth;
+                }
+                out[CONTENT] = x_pos;
+            }
+        } else { //MultiWindow on left
+            out[LAUNCHER] = x_pos + width;
+            out[CORNERSTONE] = x_pos;
+            if (!floatingEdit) {
+                out[CORNERSTONE + 2] = x_pos + width;
+            }
+            if (!dockedMode) {
+                out[CONTENT] = x_pos + width;
+            } else {
+                if (!expanded) {
+                    out[CONTENT] = x_pos - displayWidth;
+                }
+                out[CONTENT + 2] = x_pos;
+            }
+        }
+    }
+
+    private static void set(int[] out, int offset, int left, int top, int right, int bottom) {
+        out[offset] = left;
+        out[offset + 1] = top;
+        out[offset + 2] = right;
+        out[offset + 3] = bottom;
+    }
+}
@@ -24,7 +24,8 @@ import android.view.MotionEvent;
 import android.widget.RelativeLayout;
 
 /**
- * Purpose of this class is catch all move events and resize TMW.
+ * Purpose of this class is catch all move events and resize TMW. Drags
+ * starting at a divider between docked windows move the divider instead.
  */
 public class ResizeLayer extends RelativeLayout {
 
@@ -32,13 +33,50 @@ public class ResizeLayer extends RelativeLayout {
      * Implement this interface to get resize events
      */
     public interface ResizeLayerListener {
-        void onResizeEvent(int x_pos);
+        /**
+         * Returns true if windows have been relayouted for the position
+         */
+        boolean onResizeEvent(int x_pos);
+
+        /**
+         * Called when the finger has been lifted, after the last onResizeEvent
+         */
+        void onResizeFinished(int x_pos);
+    }
+
+    /**
+     * Implement this interface to move dividers between docked windows
+     */
+    public interface DividerListener {
+        /**
+         * Returns true if there is a divider at the raw x, y to be dragged
+         * vertically (or horizontally if vertical is false)
+         */
+        boolean onDividerDragStarted(int x, int y, boolean vertical);
+
+        /**
+         * Called with the move along the direction the drag started in
+         */
+        void onDividerDragged(int delta);
+
+        /**
+         * Called when the finger has been lifted, after the last onDividerDragged
+         */
+        void onDividerDragFinished();
     }
 
     private final static int mMinimalMove = 25;
     private int mFirstXTouch = -1;
+    private int mFirstYTouch = -1;
+    private int mLastXTouch = -1;
+    private int mLastYTouch = -1;
     private ResizeLayerListener mResizeLayerListener = null;
+    private ResizeScheduler mResizeScheduler = null;
+    private DividerListener mDividerListener = null;
     private boolean mResizingEnabled = false;
+    private boolean mResizing = false;
+    private boolean mDraggingDivider = false;
+    private boolean mDividerVertical = false;
 
     public ResizeLayer(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -46,25 +84,98 @@ public class ResizeLayer extends RelativeLayout {
     }
 
     public void setResizeLayerListener(ResizeLayerListener rll) {
+        setResizeLayerListener(rll, rll != null ? new ResizeScheduler(rll) : null);
+    }
+
+    /**
+     * Method sets listener together with scheduler delivering events to it
+     */
+    void setResizeLayerListener(ResizeLayerListener rll, ResizeScheduler scheduler) {
+        if (mResizeScheduler != null) {
+            mResizeScheduler.cancel();
+        }
         mResizeLayerListener = rll;
+        mResizeScheduler = scheduler;
+    }
+
+    /**
+     * Method sets listener moving dividers. Dividers are dragged only
+     * while resizing is enabled.
+     */
+    public void setDividerListener(DividerListener dl) {
+        mDividerListener = dl;
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mResizing = false;
+            mDraggingDivider = false;
+            mFirstXTouch = (int)event.getRawX();
+            mFirstYTouch = (int)event.getRawY();
             return true;
         }
         int x = (int)event.getRawX();
+        int y = (int)event.getRawY();
         if (event.getActionMasked() == MotionEvent.ACTION_MOVE) {
-            if (mResizeLayerListener != null) {
-                mResizeLayerListener.onResizeEvent(x);
+            if (mDraggingDivider) {
+                mDividerListener.onDividerDragged(mDividerVertical ? y - mLastYTouch : x - mLastXTouch);
+            } else if (!mResizing && mDividerListener != null && mResizingEnabled) {
+                // direction of the first move picks the dividers looked for,
+                // horizontal moves off a divider resize the panel
+                int dx = Math.abs(x - mFirstXTouch);
+                int dy = Math.abs(y - mFirstYTouch);
+                boolean vertical = dy > dx;
+                if (Math.max(dx, dy) > mMinimalMove) {
+                    mDraggingDivider = mDividerListener.onDividerDragStarted(mFirstXTouch, mFirstYTouch,
+                            vertical);
+                    if (mDraggingDivider) {
+                        mDividerVertical = vertical;
+                        mDividerListener.onDividerDragged(vertical ? y - mFirstYTouch : x - mFirstXTouch);
+                    } else if (!vertical && mResizeScheduler != null) {
+                        mResizeScheduler.schedule(x, event.getEventTimeNano());
+                        mResizing = true;
+                    }
+                }
+            } else if (mResizeScheduler != null) {
+                // relayout is done once per frame with the latest position
+                mResizeScheduler.schedule(x, event.getEventTimeNano());
+                mResizing = true;
             }
+            mLastXTouch = x;
+            mLastYTouch = y;
         }
         if ((event.getActionMasked() == MotionEvent.ACTION_UP)) {
+            if (mDraggingDivider) {
+                mDraggingDivider = false;
+                mDividerListener.onDividerDragFinished();
+                mFirstXTouch = -1;
+                return true;
+            }
+            if (mResizing && mResizeScheduler != null) {
+                // final relayout lands exactly where the finger was lifted
+                mResizeScheduler.flush(x, event.getEventTimeNano());
+                mResizeLayerListener.onResizeFinished(x);
+            }
+            mResizing = false;
             boolean ret = Math.abs(mFirstXTouch - x) > mMinimalMove;
             mFirstXTouch = -1;
             return ret;
         }
+        if ((event.getActionMasked() == MotionEvent.ACTION_CANCEL)) {
+            if (mDraggingDivider) {
+                mDraggingDivider = false;
+                mDividerListener.onDividerDragFinished();
+            }
+            if (mResizeScheduler != null) {
+                mResizeScheduler.flush();
+                if (mResizing) {
+                    mResizeLayerListener.onResizeFinished(x);
+                }
+            }
+            mResizing = false;
+            mFirstXTouch = -1;
+        }
         return true;
     }
 
@@ -78,11 +189,18 @@ public class ResizeLayer extends RelativeLayout {
         }
         if ((event.getActionMasked() == MotionEvent.ACTION_DOWN)) {
             mFirstXTouch = (int)event.getRawX();
+            mFirstYTouch = (int)event.getRawY();
+            mResizing = false;
+            mDraggingDivider = false;
             return false;
         }
         int x = (int)event.getRawX();
+        int y = (int)event.getRawY();
         if (((event.getActionMasked() == MotionEvent.ACTION_MOVE))
-            && (Math.abs(mFirstXTouch - x) > mMinimalMove)) {
+            && (Math.abs(mFirstXTouch - x) > mMinimalMove
+                || (mDividerListener != null && Math.abs(mFirstYTouch - y) > mMinimalMove))) {
+            mLastXTouch = x;
+            mLastYTouch = y;
             return true;
         }
         if ((event.getActionMasked() == MotionEvent.ACTION_UP)) {
@@ -0,0 +1,146 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.view.Choreographer;
+
+import com.tieto.multiwindow.ResizeLayer.ResizeLayerListener;
+
+/**
+ * Purpose of this class is to coalesce resize events, so that the listener
+ * gets at most one of them per display frame. Only the latest position is kept.
+ */
+public class ResizeScheduler {
+
+    /**
+     * Source of frame callbacks. Default one is driven by Choreographer,
+     * other implementations may be given e.g. to run without display.
+     */
+    public interface FrameClock {
+        void postFrameCallback(Runnable callback);
+        void removeFrameCallback(Runnable callback);
+    }
+
+    private final ResizeLayerListener mListener;
+    private final FrameClock mFrameClock;
+    private int mPendingPosition;
+    private long mPendingEventTimeNanos;
+    private boolean mPending = false;
+
+    private final Runnable mFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            if (!mPending) {
+                return;
+            }
+            mPending = false;
+            deliver(mPendingPosition, mPendingEventTimeNanos);
+        }
+    };
+
+    public ResizeScheduler(ResizeLayerListener listener) {
+        this(listener, new ChoreographerFrameClock());
+    }
+
+    public ResizeScheduler(ResizeLayerListener listener, FrameClock clock) {
+        mListener = listener;
+        mFrameClock = clock;
+    }
+
+    /**
+     * Method stores position and requests delivery in the next frame.
+     * eventTimeNanos is time of the touch event in the System.nanoTime()
+     * base (MotionEvent.getEventTimeNano()), used for latency metrics.
+     */
+    public void schedule(int x_pos, long eventTimeNanos) {
+        mPendingPosition = x_pos;
+        if (!mPending) {
+            // the oldest coalesced event defines the latency
+            mPendingEventTimeNanos = eventTimeNanos;
+            mPending = true;
+            mFrameClock.postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Method drops pending position and delivers the given one right away
+     */
+    public void flush(int x_pos, long eventTimeNanos) {
+        cancel();
+        deliver(x_pos, eventTimeNanos);
+    }
+
+    /**
+     * Method delivers pending position (if any) right away
+     */
+    public void flush() {
+        if (mPending) {
+            flush(mPendingPosition, mPendingEventTimeNanos);
+        }
+    }
+
+    private void deliver(int x_pos, long eventTimeNanos) {
+        if (mListener.onResizeEvent(x_pos)) {
+            Metrics.TOUCH_TO_RELAYOUT.record(System.nanoTime() - eventTimeNanos);
+        }
+    }
+
+    /**
+     * Method drops pending position
+     */
+    public void cancel() {
+        if (mPending) {
+            mPending = false;
+            mFrameClock.removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Returns true if position waits for the next frame
+     */
+    public boolean isPending() {
+        return mPending;
+    }
+
+    private static class ChoreographerFrameClock implements FrameClock, Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private Runnable mCallback;
+
+        @Override
+        public void postFrameCallback(Runnable callback) {
+            mCallback = callback;
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void removeFrameCallback(Runnable callback) {
+            mChoreographer.removeFrameCallback(this);
+            mCallback = null;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            Runnable callback = mCallback;
+            mCallback = null;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.Arrays;
+
+/**
+ * Snap points of the docked divider, precomputed for one display. Points
+ * are distances of the divider from the display edge the panel is docked to.
+ */
+final class SnapPoints {
+
+    private final int[] mPoints;
+
+    /**
+     * Creates snap points at given percents of the display width. Points
+     * are clamped into [min, max], both bounds are snap points as well.
+     */
+    SnapPoints(int displayWidth, int[] ratiosPercent, int min, int max) {
+        int[] points = new int[ratiosPercent.length + 2];
+        points[0] = min;
+        points[1] = max;
+        for (int i = 0; i < ratiosPercent.length; i++) {
+            int p = displayWidth * ratiosPercent[i] / 100;
+            points[i + 2] = Math.max(min, Math.min(max, p));
+        }
+        Arrays.sort(points);
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (count == 0 || points[count - 1] != points[i]) {
+                points[count++] = points[i];
+            }
+        }
+        mPoints = Arrays.copyOf(points, count);
+    }
+
+    /**
+     * Returns snap point nearest to the given distance
+     */
+    int snap(int distance) {
+        int i = Arrays.binarySearch(mPoints, distance);
+        if (i >= 0) {
+            return mPoints[i];
+        }
+        int next = -i - 1;
+        if (next == 0) {
+            return mPoints[0];
+        }
+        if (next == mPoints.length) {
+            return mPoints[mPoints.length - 1];
+        }
+        int prev = next - 1;
+        return distance - mPoints[prev] <= mPoints[next] - distance ? mPoints[prev] : mPoints[next];
+    }
+}
@@ -0,0 +1,375 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.io.PrintWriter;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
+import android.os.RemoteException;
+import android.util.Log;
+
+/**
+ * Class sends stack commands to the service from its own thread, so that
+ * the UI thread only queues them and never waits for the system server.
+ * Commands are sent in the order they were queued. A relayout still
+ * waiting in the queue is updated in place by a newer relayout of the same
+ * stack and dropped when the stack gets removed, so only the latest rect
+ * of a stack is sent. Consecutive commands of one kind are sent with a
+ * single service call.
+ */
+public class StackDispatcher {
+
+    /**
+     * Implement this interface to get id of the stack created by createWindow()
+     */
+    public interface CreateCallback {
+        /**
+         * Called on the UI thread, stackId is -1 if the stack couldn't be created
+         */
+        void onStackCreated(int stackId);
+    }
+
+    private static final String TAG = "TMW";
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int CMD_NONE = 0;
+    private static final int CMD_RELAYOUT = 1;
+    private static final int CMD_REMOVE = 2;
+    private static final int CMD_CREATE = 3;
+
+    /**
+     * Queued command. Commands are recycled, so queueing doesn't allocate.
+     */
+    private static final class Command {
+        int mType;
+        int mStackId;
+        final Rect mRect = new Rect();
+        CreateCallback mCallback;
+        Command mNext;
+    }
+
+    private final StackService mService;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final Handler mUiHandler;
+    private final LatencyTracker mLatencyTracker = new LatencyTracker(128);
+
+    /**
+     * Queue, its index of pending relayouts and the counters are guarded by mLock
+     */
+    private final Object mLock = new Object();
+    private Command mHead = null;
+    private Command mTail = null;
+    private Command mFree = null;
+    private int mDepth = 0;
+    private final StackIdMap<Command> mPendingRelayouts = new StackIdMap<Command>();
+    private boolean mDrainScheduled = false;
+    private boolean mQuitting = false;
+    private int mMaxDepth = 0;
+    private long mDrains = 0;
+    private long mDrainedCommands = 0;
+    private long mRelayoutsQueued = 0;
+    private long mRelayoutsCoalesced = 0;
+    private long mRelayoutsDropped = 0;
+    private long mServiceCalls = 0;
+
+    /**
+     * Buffers of one batch, used on the dispatcher thread only
+     */
+    private int[] mBatchIds = new int[INITIAL_CAPACITY];
+    private Rect[] mBatchRects = new Rect[INITIAL_CAPACITY];
+    private int mBatchCount = 0;
+    private int mBatchType = CMD_NONE;
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public StackDispatcher(StackService service) {
+        mService = service;
+        for (int i = 0; i < mBatchRects.length; i++) {
+            mBatchRects[i] = new Rect();
+        }
+        mThread = new HandlerThread("TMW-ipc", Process.THREAD_PRIORITY_DISPLAY);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+        mUiHandler = new Handler(new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message msg) {
+                ((CreateCallback) msg.obj).onStackCreated(msg.arg1);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Method queues relayouts of the first count stacks. Rects are copied.
+     */
+    public void relayoutWindows(int[] stackIds, Rect[] rects, int count) {
+        synchronized (mLock) {
+            for (int i = 0; i < count; i++) {
+                mRelayoutsQueued++;
+                Command cmd = mPendingRelayouts.get(stackIds[i]);
+                if (cmd != null) {
+                    cmd.mRect.set(rects[i]);
+                    mRelayoutsCoalesced++;
+                } else {
+                    cmd = enqueueLocked(CMD_RELAYOUT, stackIds[i]);
+                    cmd.mRect.set(rects[i]);
+                    mPendingRelayouts.put(stackIds[i], cmd);
+                }
+            }
+            scheduleDrainLocked();
+        }
+    }
+
+    /**
+     * Method queues removal of the stack
+     */
+    public void removeWindow(int stackId) {
+        synchronized (mLock) {
+            removeLocked(stackId);
+            scheduleDrainLocked();
+        }
+    }
+
+    /**
+     * Method queues removal of the first count stacks
+     */
+    public void removeWindows(int[] stackIds, int count) {
+        synchronized (mLock) {
+            for (int i = 0; i < count; i++) {
+                removeLocked(stackIds[i]);
+            }
+            scheduleDrainLocked();
+        }
+    }
+
+    /**
+     * Method queues creation of a stack at the given position. Callback
+     * gets the new stack id on the UI thread.
+     */
+    public void createWindow(Rect position, CreateCallback callback) {
+        synchronized (mLock) {
+            Command cmd = enqueueLocked(CMD_CREATE, -1);
+            cmd.mRect.set(position);
+            cmd.mCallback = callback;
+            scheduleDrainLocked();
+        }
+    }
+
+    /**
+     * Returns round-trip latencies of the relayout calls
+     */
+    public LatencyTracker getLatencyTracker() {
+        return mLatencyTracker;
+    }
+
+    /**
+     * Method sends commands queued so far and stops the dispatcher. Stacks
+     * not created yet are not created anymore, a stack created while
+     * quitting is removed right away and its callback gets -1.
+     */
+    public void quit() {
+        synchronized (mLock) {
+            mQuitting = true;
+        }
+        mThread.quitSafely();
+    }
+
+    void dump(String prefix, PrintWriter writer) {
+        synchronized (mLock) {
+            writer.print(prefix); writer.print("ipc queue depth="); writer.print(mDepth);
+            writer.print(" max="); writer.print(mMaxDepth);
+            writer.print(" avg="); writer.println(mDrains == 0 ? 0 : mDrainedCommands / mDrains);
+            writer.print(prefix); writer.print("ipc relayouts queued="); writer.print(mRelayoutsQueued);
+            writer.print(" coalesced="); writer.print(mRelayoutsCoalesced);
+            writer.print(" dropped="); writer.print(mRelayoutsDropped);
+            writer.print(" coalescing %="); writer.print(mRelayoutsQueued == 0 ? 0
+                    : (mRelayoutsCoalesced + mRelayoutsDropped) * 100 / mRelayoutsQueued);
+            writer.print(" service calls="); writer.println(mServiceCalls);
+        }
+        writer.print(prefix); writer.print("relayout latency us p50="); writer.print(mLatencyTracker.getPercentile(50) / 1000);
+        writer.print(" p90="); writer.print(mLatencyTracker.getPercentile(90) / 1000);
+        writer.print(" p99="); writer.println(mLatencyTracker.getPercentile(99) / 1000);
+    }
+
+    private void removeLocked(int stackId) {
+        Command pending = mPendingRelayouts.remove(stackId);
+        if (pending != null) {
+            // stack goes away, its relayout doesn't need to be sent
+            pending.mType = CMD_NONE;
+            mRelayoutsDropped++;
+        }
+        enqueueLocked(CMD_REMOVE, stackId);
+    }
+
+    private Command enqueueLocked(int type, int stackId) {
+        Command cmd = mFree;
+        if (cmd != null) {
+            mFree = cmd.mNext;
+            cmd.mNext = null;
+        } else {
+            cmd = new Command();
+        }
+        cmd.mType = type;
+        cmd.mStackId = stackId;
+        if (mTail == null) {
+            mHead = cmd;
+        } else {
+            mTail.mNext = cmd;
+        }
+        mTail = cmd;
+        mDepth++;
+        if (mDepth > mMaxDepth) {
+            mMaxDepth = mDepth;
+        }
+        return cmd;
+    }
+
+    private void scheduleDrainLocked() {
+        if (!mDrainScheduled) {
+            mDrainScheduled = true;
+            mHandler.post(mDrain);
+        }
+    }
+
+    /**
+     * Method takes the whole queue and sends it. Runs on the dispatcher thread.
+     */
+    private void drain() {
+        Command head;
+        boolean quitting;
+        synchronized (mLock) {
+            head = mHead;
+            mHead = null;
+            mTail = null;
+            mPendingRelayouts.clear();
+            mDrainScheduled = false;
+            mDrains++;
+            mDrainedCommands += mDepth;
+            mDepth = 0;
+            quitting = mQuitting;
+        }
+        Command last = null;
+        for (Command cmd = head; cmd != null; cmd = cmd.mNext) {
+            switch (cmd.mType) {
+            case CMD_RELAYOUT:
+            case CMD_REMOVE:
+                if (mBatchType != cmd.mType) {
+                    sendBatch();
+                    mBatchType = cmd.mType;
+                }
+                addToBatch(cmd);
+                break;
+            case CMD_CREATE:
+                sendBatch();
+                create(cmd, quitting);
+                break;
+            default:
+                break;
+            }
+            last = cmd;
+        }
+        sendBatch();
+        if (last != null) {
+            synchronized (mLock) {
+                last.mNext = mFree;
+                mFree = head;
+            }
+        }
+    }
+
+    private void addToBatch(Command cmd) {
+        if (mBatchCount == mBatchIds.length) {
+            int[] ids = new int[mBatchIds.length * 2];
+            Rect[] rects = new Rect[mBatchRects.length * 2];
+            System.arraycopy(mBatchIds, 0, ids, 0, mBatchCount);
+            System.arraycopy(mBatchRects, 0, rects, 0, mBatchCount);
+            for (int i = mBatchCount; i < rects.length; i++) {
+                rects[i] = new Rect();
+            }
+            mBatchIds = ids;
+            mBatchRects = rects;
+        }
+        mBatchIds[mBatchCount] = cmd.mStackId;
+        mBatchRects[mBatchCount].set(cmd.mRect);
+        mBatchCount++;
+    }
+
+    private void sendBatch() {
+        if (mBatchCount == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (mBatchType == CMD_RELAYOUT) {
+                mService.relayoutWindows(mBatchIds, mBatchRects, mBatchCount);
+                long latency = System.nanoTime() - start;
+                mLatencyTracker.record(latency);
+                Metrics.RELAYOUT.record(latency);
+                for (int i = 0; i < mBatchCount; i++) {
+                    Metrics.recordRelayout(mBatchIds[i], latency);
+                }
+            } else {
+                mService.removeWindows(mBatchIds, mBatchCount);
+            }
+        } catch (RemoteException e) {
+            Log.e(TAG, e.toString());
+        } finally {
+            mBatchCount = 0;
+            synchronized (mLock) {
+                mServiceCalls++;
+            }
+        }
+    }
+
+    private void create(Command cmd, boolean quitting) {
+        int stackId = -1;
+        if (!quitting) {
+            try {
+                stackId = mService.initWindow(cmd.mRect);
+            } catch (RemoteException e) {
+                Log.e(TAG, e.toString());
+            }
+            synchronized (mLock) {
+                mServiceCalls++;
+                quitting = mQuitting;
+            }
+        }
+        if (quitting && stackId != -1) {
+            // nobody can remove the stack once the dispatcher is gone
+            try {
+                mService.removeWindows(new int[] { stackId }, 1);
+            } catch (RemoteException e) {
+                Log.e(TAG, e.toString());
+            }
+            stackId = -1;
+        }
+        mUiHandler.obtainMessage(0, stackId, 0, cmd.mCallback).sendToTarget();
+        cmd.mCallback = null;
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+/**
+ * Map from stack id to value. Keys are kept as primitive ints in an open
+ * addressing table (linear probing), so lookups are constant-time and do
+ * not box. Null values are not allowed.
+ */
+class StackIdMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private int[] mKeys;
+    private Object[] mValues;
+    private int mSize = 0;
+
+    StackIdMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates map able to hold expectedSize entries without growing
+     */
+    StackIdMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        mKeys = new int[capacity];
+        mValues = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int stackId) {
+        int mask = mKeys.length - 1;
+        for (int i = slot(stackId, mask); mValues[i] != null; i = (i + 1) & mask) {
+            if (mKeys[i] == stackId) {
+                return (V) mValues[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method puts value under given stack id. Returns previous value or null.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int stackId, V value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        if ((mSize + 1) * 2 > mKeys.length) {
+            grow();
+        }
+        int mask = mKeys.length - 1;
+        int i = slot(stackId, mask);
+        while (mValues[i] != null) {
+            if (mKeys[i] == stackId) {
+                V old = (V) mValues[i];
+                mValues[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        mKeys[i] = stackId;
+        mValues[i] = value;
+        mSize++;
+        return null;
+    }
+
+    /**
+     * Method removes value stored under given stack id. Returns it or null.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int stackId) {
+        int mask = mKeys.length - 1;
+        int hole = slot(stackId, mask);
+        while (mValues[hole] != null && mKeys[hole] != stackId) {
+            hole = (hole + 1) & mask;
+        }
+        if (mValues[hole] == null) {
+            return null;
+        }
+        V old = (V) mValues[hole];
+        // shift following entries back, so that no probe chain gets broken
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (mValues[j] == null) {
+                break;
+            }
+            int home = slot(mKeys[j], mask);
+            boolean movable = (j > hole) ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                mKeys[hole] = mKeys[j];
+                mValues[hole] = mValues[j];
+                hole = j;
+            }
+        }
+        mValues[hole] = null;
+        mSize--;
+        return old;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    void clear() {
+        for (int i = 0; i < mValues.length; i++) {
+            mValues[i] = null;
+        }
+        mSize = 0;
+    }
+
+    private void grow() {
+        int[] keys = mKeys;
+        Object[] values = mValues;
+        mKeys = new int[keys.length * 2];
+        mValues = new Object[values.length * 2];
+        int mask = mKeys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                int j = slot(keys[i], mask);
+                while (mValues[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                mKeys[j] = keys[i];
+                mValues[j] = values[i];
+            }
+        }
+    }
+
+    private static int slot(int stackId, int mask) {
+        int h = stackId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.io.PrintWriter;
+
+import android.app.ComponentCallbacks2;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+/**
+ * Pool of initialized, empty window stacks parked in the invisible place.
+ * New windows take their stack from here, so that adding a window needs
+ * only a relayout and a launch. Pool is refilled one stack at a time when
+ * the UI thread is idle; stacks are created on the dispatcher thread. Has
+ * to be used on the UI thread only.
+ */
+public class StackPool {
+
+    private final StackDispatcher mDispatcher;
+    private final int[] mStackIds;
+    private final Rect mParkedPosition;
+    private int mCount = 0;
+    private int mTarget;
+    private int mHits = 0;
+    private int mMisses = 0;
+    private boolean mRefillScheduled = false;
+    private boolean mCreating = false;
+
+    private final MessageQueue.IdleHandler mRefill = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mRefillScheduled = false;
+            if (!mCreating && mCount < mTarget) {
+                mCreating = true;
+                mDispatcher.createWindow(mParkedPosition, mCreated);
+            }
+            return false;
+        }
+    };
+
+    private final StackDispatcher.CreateCallback mCreated = new StackDispatcher.CreateCallback() {
+        @Override
+        public void onStackCreated(int stackId) {
+            mCreating = false;
+            if (stackId == -1) {
+                return;
+            }
+            if (mCount < mTarget) {
+                mStackIds[mCount++] = stackId;
+                scheduleRefill();
+            } else {
+                // pool has been trimmed or cleared meanwhile
+                mDispatcher.removeWindow(stackId);
+            }
+        }
+    };
+
+    /**
+     * Creates pool holding up to capacity stacks of the given size
+     */
+    public StackPool(StackDispatcher dispatcher, int capacity, int width, int height) {
+        mDispatcher = dispatcher;
+        mStackIds = new int[capacity];
+        mTarget = capacity;
+        mParkedPosition = new Rect(Window.mInvisiblePoint.x, Window.mInvisiblePoint.y,
+                Window.mInvisiblePoint.x + width, Window.mInvisiblePoint.y + height);
+        scheduleRefill();
+    }
+
+    /**
+     * Returns id of a pooled stack, or -1 if the pool is empty
+     */
+    public int acquire() {
+        mTarget = mStackIds.length;
+        int stackId = -1;
+        if (mCount > 0) {
+            mHits++;
+            stackId = mStackIds[--mCount];
+        } else {
+            mMisses++;
+        }
+        scheduleRefill();
+        return stackId;
+    }
+
+    /**
+     * Method shrinks the pool according to memory trim level. Full size
+     * is restored by the next acquire().
+     */
+    public void trim(int level) {
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return;
+        } else if (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            mTarget = Math.min(mTarget, 1);
+        } else {
+            mTarget = 0;
+        }
+        while (mCount > mTarget) {
+            mDispatcher.removeWindow(mStackIds[--mCount]);
+        }
+    }
+
+    /**
+     * Method removes all pooled stacks with a single service call. Pool
+     * can't be used afterwards.
+     */
+    public void clear() {
+        mTarget = 0;
+        if (mRefillScheduled) {
+            Looper.myQueue().removeIdleHandler(mRefill);
+            mRefillScheduled = false;
+        }
+        mDispatcher.removeWindows(mStackIds, mCount);
+        mCount = 0;
+    }
+
+    void dump(String prefix, PrintWriter writer) {
+        writer.print(prefix); writer.print("stack pool size="); writer.print(mCount);
+        writer.print("/"); writer.print(mTarget);
+        writer.print(" hits="); writer.print(mHits);
+        writer.print(" misses="); writer.println(mMisses);
+    }
+
+    private void scheduleRefill() {
+        if (!mRefillScheduled && !mCreating && mCount < mTarget) {
+            mRefillScheduled = true;
+            Looper.myQueue().addIdleHandler(mRefill);
+        }
+    }
+}
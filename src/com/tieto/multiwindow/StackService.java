@@ -0,0 +1,45 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.graphics.Rect;
+import android.os.RemoteException;
+
+/**
+ * Interface hides the system service calls used for window stack layout,
+ * so that the way they reach the service can be changed in one place.
+ */
+interface StackService {
+
+    /**
+     * Method relayouts first count stacks given in stackIds to the
+     * corresponding rects.
+     */
+    void relayoutWindows(int[] stackIds, Rect[] rects, int count) throws RemoteException;
+
+    /**
+     * Method removes first count stacks given in stackIds.
+     */
+    void removeWindows(int[] stackIds, int count) throws RemoteException;
+
+    /**
+     * Method creates new stack at the given position and returns its id.
+     */
+    int initWindow(Rect position) throws RemoteException;
+}
@@ -0,0 +1,117 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.Arrays;
+
+import android.view.Choreographer;
+
+/**
+ * Purpose of this class is to hold application state. Flags are kept in
+ * a bitmask. Listeners are notified at most once per frame, and only if
+ * some flag differs from what they were told last time.
+ */
+class State {
+    static final int FLAG_DOCKED = 0x1;
+    static final int FLAG_RIGHT_SIDE = 0x2;
+    static final int FLAG_EXPANDED = 0x4;
+    static final int FLAG_FLOATING_EDIT = 0x8;
+    static final int FLAG_ALL = FLAG_DOCKED | FLAG_RIGHT_SIDE | FLAG_EXPANDED | FLAG_FLOATING_EDIT;
+
+    private static final StateChangedListener[] NO_LISTENERS = new StateChangedListener[0];
+
+    /**
+     * Listeners which want to get notification that state has changed.
+     * Array is replaced on every change, so dispatch can iterate it
+     * while listeners are added or removed.
+     */
+    private StateChangedListener[] mListeners = NO_LISTENERS;
+    private int mFlags = FLAG_DOCKED | FLAG_RIGHT_SIDE;
+    private int mDeliveredFlags = mFlags;
+    private boolean mDeliveryScheduled = false;
+
+    private final Choreographer.FrameCallback mDeliver = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mDeliveryScheduled = false;
+            int changed = mFlags ^ mDeliveredFlags;
+            if (changed == 0) {
+                return;
+            }
+            mDeliveredFlags = mFlags;
+            StateChangedListener[] listeners = mListeners;
+            for (int i = 0; i < listeners.length; i++) {
+                listeners[i].onStateChanged(changed, mFlags);
+            }
+        }
+    };
+
+    boolean isDockedMode() {
+        return (mFlags & FLAG_DOCKED) != 0;
+    }
+
+    boolean isRightSide() {
+        return (mFlags & FLAG_RIGHT_SIDE) != 0;
+    }
+
+    boolean isExpanded() {
+        return (mFlags & FLAG_EXPANDED) != 0;
+    }
+
+    boolean isFloatingEdit() {
+        return (mFlags & FLAG_FLOATING_EDIT) != 0;
+    }
+
+    int getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Method sets flags given in mask to the values given in flags
+     */
+    void setFlags(int mask, int flags) {
+        mFlags = (mFlags & ~mask) | (flags & mask);
+        if (mFlags != mDeliveredFlags && !mDeliveryScheduled) {
+            mDeliveryScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mDeliver);
+        }
+    }
+
+    void toggle(int flag) {
+        setFlags(flag, ~mFlags);
+    }
+
+    void addStateChangedListener(StateChangedListener sc) {
+        StateChangedListener[] listeners = Arrays.copyOf(mListeners, mListeners.length + 1);
+        listeners[mListeners.length] = sc;
+        mListeners = listeners;
+    }
+
+    void removeStateChangedListener(StateChangedListener sc) {
+        for (int i = 0; i < mListeners.length; i++) {
+            if (mListeners[i] == sc) {
+                StateChangedListener[] listeners = new StateChangedListener[mListeners.length - 1];
+                System.arraycopy(mListeners, 0, listeners, 0, i);
+                System.arraycopy(mListeners, i + 1, listeners, i, listeners.length - i);
+                mListeners = listeners;
+                return;
+            }
+        }
+    }
+}
@@ -21,10 +21,10 @@ package com.tieto.multiwindow;
 import java.util.ArrayList;
 
 import android.content.Context;
+import android.content.Intent;
 import android.graphics.Rect;
 import android.os.RemoteException;
 import android.util.Log;
-import android.view.ViewGroup;
 
 import com.tieto.multiwindow.Window;
 
@@ -35,34 +35,135 @@ import com.tieto.multiwindow.Window;
 public class Tab extends ArrayList<Window> {
 
     private boolean mIsActive = true;
-    private MultiWindow.State mState;
-    private Rect mPosition;
-    private static final int mMaxWindows = 4;
+    private State mState;
+    private final Rect mPosition = new Rect();
+
+    /**
+     * Buffer the layout of a single window is passed in, windows copy it
+     */
+    private final Rect mWindowRect = new Rect();
+    private LayoutTransaction mLayoutTransaction;
+    private AppLaunchExecutor mAppLauncher;
+    private StackPool mStackPool;
+    private LeakDetector.Tracker mLeakTracker;
+    private final int mMaxWindows;
+    private final int[] mLayout;
+    private final TilingSolver mTilingSolver;
+    private final TilingStrategy mTilingStrategy;
+    private boolean mHibernated = false;
+    private long mHibernationDeadline = 0;
+    private Runnable mOnWindowMoved = null;
+    private Window.StackListener mOnStackCreated = null;
     private static final String TAG = "TMW";
+    private static final boolean DEBUG = false;
     private static final Rect mInitialPosition = new Rect(4000, 4000, 4800, 4800);
 
     /**
-     * Method sets state of the Tab
+     * Method sets state of the Tab and maximal number of its windows
      */
-    public Tab(MultiWindow.State state) {
+    public Tab(State state, LayoutTransaction transaction, AppLaunchExecutor launcher,
+            StackPool pool, int maxWindows, TilingStrategy tiling) {
         mState = state;
-        mPosition = new Rect(mInitialPosition);
+        mLayoutTransaction = transaction;
+        mAppLauncher = launcher;
+        mStackPool = pool;
+        mMaxWindows = maxWindows;
+        mLayout = new int[maxWindows * TabLayout.STRIDE];
+        mTilingSolver = new TilingSolver(maxWindows);
+        mTilingStrategy = tiling;
+        mPosition.set(mInitialPosition);
+        mLeakTracker = LeakDetector.track(this, "tab");
     }
 
+    /**
+     * Method removes stacks of all windows and releases the tab
+     */
     public void removeTab() throws RemoteException {
         try {
             for (Window w : this) {
                 w.removeWindow();
             }
-            clear();
         } catch (RemoteException e) {
             Log.e(TAG,"Error removing tab");
         }
+        release();
     }
 
-    protected void finalize() throws Throwable {
-        Log.v(TAG,"finalize, Tab");
-        removeTab();
+    /**
+     * Method stores stack ids of the windows in stackIds, starting from
+     * offset. Returns offset following the last stored id.
+     */
+    int getStackIds(int[] stackIds, int offset) {
+        for (int i = 0; i < size(); i++) {
+            if (get(i).getStackId() != -1) {
+                stackIds[offset++] = get(i).getStackId();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Method releases windows and the tab without touching their stacks
+     */
+    void release() {
+        for (int i = 0; i < size(); i++) {
+            get(i).release();
+        }
+        clear();
+        if (mLeakTracker != null) {
+            mLeakTracker.release();
+            mLeakTracker = null;
+        }
+    }
+
+    /**
+     * Method removes stacks of all windows, windows are kept for wake()
+     */
+    void hibernate() {
+        for (int i = 0; i < size(); i++) {
+            get(i).hibernate();
+        }
+        mHibernated = true;
+    }
+
+    /**
+     * Method recreates stacks of all hibernated windows
+     */
+    void wake() {
+        for (int i = 0; i < size(); i++) {
+            get(i).wake();
+        }
+        mHibernated = false;
+    }
+
+    boolean isHibernated() {
+        return mHibernated;
+    }
+
+    /**
+     * Method sets uptime the tab gets hibernated at, 0 means never
+     */
+    void setHibernationDeadline(long uptimeMillis) {
+        mHibernationDeadline = uptimeMillis;
+    }
+
+    long getHibernationDeadline() {
+        return mHibernationDeadline;
+    }
+
+    /**
+     * Method sets callback run when a floating window of the tab is moved
+     */
+    void setOnWindowMovedListener(Runnable listener) {
+        mOnWindowMoved = listener;
+    }
+
+    /**
+     * Method sets listener told when a window of the tab gets its stack
+     * after it has been added, or when it is woken up
+     */
+    void setOnStackCreatedListener(Window.StackListener listener) {
+        mOnStackCreated = listener;
     }
 
     /**
@@ -81,19 +182,44 @@ public class Tab extends ArrayList<Window> {
     }
 
     /**
-     * Method adds window to Tab
+     * Method adds window to Tab. Returns the new window or null if it
+     * could not be added.
+     */
+    public Window addWindow (Context context, GhostLayer ghostLayer) {
+        return addWindow(context, ghostLayer, null, null);
+    }
+
+    /**
+     * Method adds window launching given intent (default application if
+     * null) and placed at floatingPosition in floating mode (if not null)
      */
-    public boolean addWindow (Context context, ViewGroup ghostLayer) {
+    public Window addWindow (Context context, GhostLayer ghostLayer, Intent intent, Rect floatingPosition) {
         if (size() < mMaxWindows && mIsActive) {
-            add(new Window(new Rect(mInitialPosition), context, ghostLayer));
-            resizeWindows(mPosition);
-            return true;
+            Window w;
+            if (intent == null) {
+                w = new Window(mInitialPosition, context, ghostLayer, mLayoutTransaction,
+                        mAppLauncher, mStackPool);
+            } else {
+                w = new Window(mInitialPosition, context, intent, ghostLayer, mLayoutTransaction,
+                        mAppLauncher, mStackPool);
+            }
+            w.setLastFloatingPosition(floatingPosition);
+            w.setOnMovedListener(mOnWindowMoved);
+            w.setOnStackCreatedListener(mOnStackCreated);
+            add(w);
+            requestLayout();
+            return w;
         }
-        return false;
+        return null;
     }
 
     void requestLayout() {
-        resizeWindows(mPosition);
+        mLayoutTransaction.begin();
+        try {
+            resizeWindows(mPosition);
+        } finally {
+            mLayoutTransaction.commit();
+        }
     }
 
     /**
@@ -102,17 +228,50 @@ public class Tab extends ArrayList<Window> {
     public boolean removeWindow (int stackId) {
         // I look for specific window in current tab.
         // If found it gets removed and remaining windows get resized.
-        for (Window w : this) {
+        for (int i = 0; i < size(); i++) {
+            Window w = get(i);
             if (w.getStackId() == stackId) {
                 w.windowRemovedExternally();
-                remove(w);
-                resizeWindows(mPosition);
+                remove(i);
+                mTilingSolver.onWindowRemoved(i, size());
+                requestLayout();
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Method moves divider between docked windows by delta pixels and
+     * relayouts the tab. Dividers are numbered by the tiling strategy.
+     */
+    boolean moveDivider(int divider, int delta) {
+        if (!mIsActive || !mState.isDockedMode() || !mTilingSolver.moveDivider(divider, delta)) {
+            return false;
+        }
+        requestLayout();
+        return true;
+    }
+
+    /**
+     * Returns divider between docked windows moved by drags in the given
+     * direction closest to x, y, or -1 if the tiling strategy has none
+     * within MIN_TILE / 2. Point out of the tab (e.g. on the panel next to
+     * it) is moved onto its nearest edge first.
+     */
+    int dividerAt(int x, int y, boolean vertical) {
+        if (!mIsActive || !mState.isDockedMode()) {
+            return -1;
+        }
+        x = Math.max(mPosition.left, Math.min(mPosition.right, x));
+        y = Math.max(mPosition.top, Math.min(mPosition.bottom, y));
+        return mTilingSolver.dividerAt(x, y, vertical, TabLayout.MIN_TILE / 2);
+    }
+
+    TilingSolver getTilingSolver() {
+        return mTilingSolver;
+    }
+
     void setVisibility(boolean vis) {
         for(Window w : this) {
             w.setVisibility(vis);
@@ -123,8 +282,8 @@ public class Tab extends ArrayList<Window> {
      * Method resizes windows contained in tab according to parameters given
      */
     public void resizeWindows (Rect r) {
-        mPosition = r;
-        Rect rw = new Rect();
+        mPosition.set(r);
+        Rect rw = mWindowRect;
         // handling window resizing in docked mode
         if (!mIsActive) {
             for (int i=0; i<size(); i++) {
@@ -132,23 +291,25 @@ public class Tab extends ArrayList<Window> {
                 get(i).setVisibility(false);
             }
         } else {
-            if (mState.mDockedMode) {
+            if (mState.isDockedMode()) {
+                int[] layout = mTilingSolver.solve(mTilingStrategy, r.left, r.top, r.right, r.bottom, size());
                 for (int i=0; i<size(); i++) {
-                    rw.set(r.left, r.top + i*r.height()/size(), r.right, r.top + (i+1)*r.height()/size());
-                    get(i).resize(rw);
-                    get(i).setVisibility(true);
+                    int o = i * TabLayout.STRIDE;
+                    rw.set(layout[o], layout[o + 1], layout[o + 2], layout[o + 3]);
+                    get(i).resize(rw, true);
                 }
             //floating mode here
             } else {
-                int dWidth = (r.right - r.left)/10;
-                int dHeight = (r.bottom - r.top)/10;
+                TabLayout.cascade(r.left, r.top, r.right, r.bottom, size(), mLayout);
                 for (int i=0; i<size(); i++) {
                     // introduced without having checked out
                     if (!get(i).restoreLastFloatingPosition()) {
-                        rw.set(r.left + (4-i)*dWidth, r.top + (i+1)*dHeight, r.right - (i+1)*dWidth, r.bottom - (4-i)*dHeight);
-                        get(i).resize(rw);
-                        get(i).setVisibility(true);
-                        Log.v(TAG,"firsttimeTAB");
+                        int o = i * TabLayout.STRIDE;
+                        rw.set(mLayout[o], mLayout[o + 1], mLayout[o + 2], mLayout[o + 3]);
+                        get(i).resize(rw, true);
+                        if (DEBUG) {
+                            Log.v(TAG,"firsttimeTAB");
+                        }
                     }
                 }
             }
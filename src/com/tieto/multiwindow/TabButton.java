@@ -18,35 +18,66 @@
 
 package com.tieto.multiwindow;
 
+import java.lang.ref.WeakReference;
+
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
 import android.util.Log;
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.LinearLayout.LayoutParams;
 
 public class TabButton extends LinearLayout {
 
     public static final String TAG = "TMW";
-    private ImageButton mRemoveButton;
-    private ImageButton mSwitchButton;
+    private static final int[] STATE_RIGHT = { R.attr.state_right };
+    private static final int[] STATE_ACTIVE = { R.attr.state_active };
+
+    /**
+     * Backgrounds are loaded once and shared by all buttons, every button
+     * only gets its own drawable instance keeping the drawable state. They
+     * are loaded again for other resources or a changed configuration, so
+     * that buttons never get drawables of the previous density or theme.
+     */
+    private static Drawable.ConstantState sSwitchBackground = null;
+    private static Drawable.ConstantState sRemoveBackground = null;
+    private static WeakReference<Resources> sBackgroundResources = null;
+    private static final Configuration sBackgroundConfiguration = new Configuration();
+
+    private StateButton mRemoveButton;
+    private StateButton mSwitchButton;
     private Tab mTab;
     private boolean mIsActive;
+    private boolean mDrawnActive;
+    private boolean mDrawnRightSide;
     private OnClickListener mOnRemoveButtonClickListener = null;
     private OnClickListener mOnSwitchButtonClickListener = null;
-    private MultiWindow.State mState;
+    private State mState;
 
-    public TabButton(Context context, MultiWindow.State state) {
+    public TabButton(Context context, State state) {
         super(context);
         mState = state;
         setOrientation(LinearLayout.VERTICAL);
         LayoutParams lp = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
         setLayoutParams(lp);
 
-        mSwitchButton = new ImageButton(context);
-        mSwitchButton.setBackgroundResource(R.drawable.tab);
-        lp = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+        Resources res = context.getResources();
+        loadBackgrounds(res);
+        mDrawnActive = mIsActive;
+        mDrawnRightSide = mState.isRightSide();
+
+        mSwitchButton = new StateButton(context);
+        mSwitchButton.setBackground(sSwitchBackground.newDrawable(res));
+        mSwitchButton.setScaleType(ImageView.ScaleType.FIT_CENTER);
+        // button keeps the size of its background, thumbnails are scaled into it
+        Drawable background = mSwitchButton.getBackground();
+        lp = new LayoutParams(background.getIntrinsicWidth(), background.getIntrinsicHeight());
         mSwitchButton.setLayoutParams(lp);
         mSwitchButton.setOnClickListener(new OnClickListener() {
             @Override
@@ -57,8 +88,8 @@ public class TabButton extends LinearLayout {
 
         // adding switchpart of the tabbutton
         addView(mSwitchButton);
-        mRemoveButton = new ImageButton(context);
-        mRemoveButton.setBackgroundResource(R.drawable.remove_tab);
+        mRemoveButton = new StateButton(context);
+        mRemoveButton.setBackground(sRemoveBackground.newDrawable(res));
         lp = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
         mRemoveButton.setLayoutParams(lp);
         mRemoveButton.setOnClickListener(new OnClickListener() {
@@ -72,24 +103,40 @@ public class TabButton extends LinearLayout {
         addView(mRemoveButton);
     }
 
+    /**
+     * Method loads backgrounds shared by the buttons unless they have been
+     * loaded from the same resources and configuration already
+     */
+    private static void loadBackgrounds(Resources res) {
+        if (sSwitchBackground != null && sBackgroundResources.get() == res
+                && sBackgroundConfiguration.diff(res.getConfiguration()) == 0) {
+            return;
+        }
+        sSwitchBackground = res.getDrawable(R.drawable.tab_btn).getConstantState();
+        sRemoveBackground = res.getDrawable(R.drawable.remove_tab_btn).getConstantState();
+        sBackgroundResources = new WeakReference<Resources>(res);
+        sBackgroundConfiguration.setTo(res.getConfiguration());
+    }
+
+    /**
+     * Method refreshes drawable state of the button parts if active flag or
+     * side changed since the last refresh. Otherwise it does nothing.
+     */
     public void updateGraphics() {
-        if (mIsActive) {
-            if (mState.mRightSide) {
-                mRemoveButton.setBackgroundResource(R.drawable.remove_tab_click);
-                mSwitchButton.setBackgroundResource(R.drawable.tab_click);
-            } else {
-                mRemoveButton.setBackgroundResource(R.drawable.remove_tab_click_left);
-                mSwitchButton.setBackgroundResource(R.drawable.tab_click_left);
-            }
-        } else {
-            if (mState.mRightSide) {
-                mRemoveButton.setBackgroundResource(R.drawable.remove_tab);
-                mSwitchButton.setBackgroundResource(R.drawable.tab);
-            } else {
-                mRemoveButton.setBackgroundResource(R.drawable.remove_tab_left);
-                mSwitchButton.setBackgroundResource(R.drawable.tab_left);
-            }
+        if (mDrawnActive == mIsActive && mDrawnRightSide == mState.isRightSide()) {
+            return;
         }
+        mDrawnActive = mIsActive;
+        mDrawnRightSide = mState.isRightSide();
+        mSwitchButton.refreshDrawableState();
+        mRemoveButton.refreshDrawableState();
+    }
+
+    /**
+     * Method shows thumbnail of the tab on the switch button, null removes it
+     */
+    public void setThumbnail(Bitmap thumbnail) {
+        mSwitchButton.setImageBitmap(thumbnail);
     }
 
     public boolean isActive() {
@@ -127,4 +174,29 @@ public class TabButton extends LinearLayout {
     public void setOnSwitchButtonClickListener(OnClickListener listener) {
         mOnSwitchButtonClickListener = listener;
     }
+
+    /**
+     * Part of the tab button with drawable states for active tab and side
+     */
+    private class StateButton extends ImageButton {
+
+        public StateButton(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected int[] onCreateDrawableState(int extraSpace) {
+            if (mState == null) {
+                return super.onCreateDrawableState(extraSpace);
+            }
+            final int[] drawableState = super.onCreateDrawableState(extraSpace + 2);
+            if (mIsActive) {
+                mergeDrawableStates(drawableState, STATE_ACTIVE);
+            }
+            if (mState.isRightSide()) {
+                mergeDrawableStates(drawableState, STATE_RIGHT);
+            }
+            return drawableState;
+        }
+    }
 }
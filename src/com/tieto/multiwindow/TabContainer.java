@@ -18,11 +18,17 @@
 
 package com.tieto.multiwindow;
 
+import java.io.PrintWriter;
 import java.util.ArrayList;
 
 import android.content.Context;
+import android.content.Intent;
+import android.content.res.Resources;
 import android.graphics.Rect;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.view.View.OnClickListener;
@@ -35,42 +41,135 @@ import com.tieto.multiwindow.TabButton;
 public class TabContainer extends ArrayList<Tab> {
 
     private static final String TAG = "TMW";
-    private Rect mPosition;
-    private MultiWindow.State mState;
+    private static final boolean DEBUG = false;
+    private final Rect mPosition = new Rect(-3000,0,0,1000);
+    private State mState;
     private ViewGroup mTabsButtonsLayout;
     private Context mContext;
     private Tab mCurrentTab = null;
+    private TabButton mCurrentButton = null;
+    private final TilingStrategy mTilingStrategy;
+    private Runnable mOnTabsChanged = null;
+    private final Runnable mNotifyTabsChanged = new Runnable() {
+        @Override
+        public void run() {
+            notifyTabsChanged();
+        }
+    };
+    private LayoutTransaction mLayoutTransaction;
+    private AppLaunchExecutor mAppLauncher;
+    private StackPool mStackPool;
+    private ThumbnailCache mThumbnailCache;
+    private boolean mRestoring = false;
+    private boolean mDragging = false;
+
+    /**
+     * Inactive tabs are hibernated by a single check run at the earliest
+     * deadline, so that the message queue doesn't grow with the number of
+     * tabs and a tab switch doesn't scan it.
+     */
+    private boolean mHibernationScheduled = false;
+    private final Runnable mHibernationCheck = new Runnable() {
+        @Override
+        public void run() {
+            mHibernationScheduled = false;
+            hibernateExpiredTabs();
+        }
+    };
+
+    /**
+     * Thumbnails of the active tab are captured once its windows settled
+     * and the UI thread is idle, so that the screenshot is never taken on
+     * the tab switch path. Switching away only shows the cached thumbnails.
+     * Nothing is scheduled while a divider or the panel is dragged, the
+     * capture is scheduled once when the drag ends.
+     */
+    private static final int CAPTURE_DELAY_MS = 1000;
+    private final MessageQueue.IdleHandler mCaptureWhenIdle = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            captureThumbnails(mCurrentTab);
+            return false;
+        }
+    };
+    private final Runnable mCaptureTask = new Runnable() {
+        @Override
+        public void run() {
+            Looper.myQueue().removeIdleHandler(mCaptureWhenIdle);
+            Looper.myQueue().addIdleHandler(mCaptureWhenIdle);
+        }
+    };
 
-    // HAS TO TAKE THE VALUES FROM THE SETTINGS
-    private int mMinTabNumber = 1;
-    private int mMaxTabNumber = 4;
+    /**
+     * Index of windows and their tabs by stack id, kept in sync with
+     * windows added to and removed from the tabs.
+     */
+    private final StackIdMap<Window> mWindowIndex;
+    private final StackIdMap<Tab> mTabIndex;
+
+    /**
+     * Limits are taken from the resources (config.xml), so that they can be
+     * overlaid per device.
+     */
+    private final int mMinTabNumber;
+    private final int mMaxTabNumber;
+    private final int mMaxWindowsPerTab;
+    private final int mHibernationTimeout;
 
     /**
      * Method initializes tab container
      *
      */
-    public TabContainer (MultiWindow.State state, Context context, ViewGroup ll) {
+    public TabContainer (State state, Context context, ViewGroup ll,
+            LayoutTransaction transaction, AppLaunchExecutor launcher, StackPool pool,
+            ThumbnailCache thumbnails) {
         mContext = context;
+        mLayoutTransaction = transaction;
+        mAppLauncher = launcher;
+        mStackPool = pool;
+        mThumbnailCache = thumbnails;
         mState = state;
-        int i = 0;
-        mPosition = new Rect(-3000,0,0,1000);
+        Resources res = context.getResources();
+        mMinTabNumber = res.getInteger(R.integer.min_tabs);
+        mMaxTabNumber = res.getInteger(R.integer.max_tabs);
+        mMaxWindowsPerTab = res.getInteger(R.integer.max_windows_per_tab);
+        mHibernationTimeout = res.getInteger(R.integer.tab_hibernation_timeout_ms);
+        mTilingStrategy = TabLayout.forName(res.getString(R.string.docked_tiling));
+        mWindowIndex = new StackIdMap<Window>(mMaxTabNumber * mMaxWindowsPerTab);
+        mTabIndex = new StackIdMap<Tab>(mMaxTabNumber * mMaxWindowsPerTab);
         mTabsButtonsLayout = ll;
         addTab();
     }
 
+    /**
+     * Method sets callback run whenever tabs or their windows change
+     */
+    public void setOnTabsChangedListener(Runnable listener) {
+        mOnTabsChanged = listener;
+    }
+
+    private void notifyTabsChanged() {
+        if (mOnTabsChanged != null) {
+            mOnTabsChanged.run();
+        }
+    }
+
     /**
      * Method adds tab to TabContainer
      *
      */
     public boolean addTab () {
         if (size() < mMaxTabNumber) {
-            //deactivating all the other tabs...
-            for (int i = 0; i < size(); i++) {
-                get(i).setActive(false);
-                ((TabButton) mTabsButtonsLayout.getChildAt(i)).setActive(false);
-            }
-            //... so that the new one could get active
-            Tab t = new Tab(mState);
+            final Tab t = new Tab(mState, mLayoutTransaction, mAppLauncher, mStackPool, mMaxWindowsPerTab,
+                    mTilingStrategy);
+            // moved floating windows are part of the workspace as well
+            t.setOnWindowMovedListener(mNotifyTabsChanged);
+            t.setOnStackCreatedListener(new Window.StackListener() {
+                @Override
+                public void onStackCreated(Window w) {
+                    indexWindow(t, w);
+                }
+            });
             add(t);
 
             TabButton button = new TabButton(mContext, mState);
@@ -95,9 +194,12 @@ public class TabContainer extends ArrayList<Tab> {
 
             // Add button to the visible layout
             mTabsButtonsLayout.addView(button);
-            switchTab(t);
-            button.setActive(true);
-            Log.v(TAG,"Added " + size() + "th tab");
+            // new tab gets active, the one active so far is deactivated
+            switchTab(button, false);
+            if (DEBUG) {
+                Log.v(TAG,"Added " + size() + "th tab");
+            }
+            notifyTabsChanged();
             return true;
         }
         return false;
@@ -119,7 +221,11 @@ public class TabContainer extends ArrayList<Tab> {
             } else {
                 target = mTabsButtonsLayout.getChildAt(mTabsButtonsLayout.indexOfChild(v) + 1);
             }
-            handleSwitchTab(target);
+            switchTab((TabButton) target, true);
+        }
+        unindexTab(tabButton.getTab());
+        for (int i = 0; i < tabButton.getTab().size(); i++) {
+            mThumbnailCache.remove(tabButton.getTab().get(i).getStackId());
         }
         try {
             tabButton.getTab().removeTab();
@@ -128,43 +234,117 @@ public class TabContainer extends ArrayList<Tab> {
         }
         remove(tabButton.getTab());
         mTabsButtonsLayout.removeView(v);
+        notifyTabsChanged();
     }
 
     public void handleSwitchTab(View v) {
-        switchTab(((TabButton) v).getTab());
-        for (int i = 0; i < mTabsButtonsLayout.getChildCount(); i++) {
-            TabButton tab = ((TabButton) mTabsButtonsLayout.getChildAt(i));
-            tab.setActive(v.equals(mTabsButtonsLayout.getChildAt(i)));
-        }
+        switchTab((TabButton) v, false);
     }
 
-    public void clearAll() {
+    /**
+     * Method removes all the tabs. Stacks of all windows are removed with
+     * a single service call.
+     */
+    public void clearAll(StackDispatcher dispatcher) {
+        int windows = 0;
         for (int i=0; i<size(); i++) {
-            try {
-                get(i).removeTab();
-            } catch (RemoteException e) {
-                Log.e(TAG, e.toString());
-            }
+            windows += get(i).size();
+        }
+        int[] stackIds = new int[windows];
+        int count = 0;
+        for (int i=0; i<size(); i++) {
+            count = get(i).getStackIds(stackIds, count);
+        }
+        dispatcher.removeWindows(stackIds, count);
+        for (int i=0; i<size(); i++) {
+            get(i).release();
         }
         clear();
+        mTabsButtonsLayout.removeCallbacks(mHibernationCheck);
+        mHibernationScheduled = false;
+        mTabsButtonsLayout.removeCallbacks(mCaptureTask);
+        Looper.myQueue().removeIdleHandler(mCaptureWhenIdle);
+        mCurrentTab = null;
+        mCurrentButton = null;
+        mThumbnailCache.clear();
+        mWindowIndex.clear();
+        mTabIndex.clear();
     }
 
-    public void switchTab (Tab index) {
-        Log.v(TAG,"Switch tab for number " + index);
-        for (Tab i : this) {
-            i.setActive(i.equals(index));
+    /**
+     * Method switches to the tab of the button given. Only the outgoing and
+     * the incoming tab (and their buttons) are touched, the other tabs are
+     * inactive and hidden already. Windows of both tabs are relayouted in
+     * one transaction. The outgoing tab shows thumbnails captured while it
+     * was active, it is not hibernated if it is just being removed.
+     */
+    private void switchTab (TabButton button, boolean outgoingRemoved) {
+        Tab index = button.getTab();
+        if (DEBUG) {
+            Log.v(TAG,"Switch tab for number " + index);
+        }
+        long start = System.nanoTime();
+        Tab outgoing = mCurrentTab != index ? mCurrentTab : null;
+        if (outgoing != null) {
+            outgoing.setActive(false);
+            if (!outgoingRemoved) {
+                showThumbnails(outgoing, true);
+                scheduleHibernation(outgoing);
+            }
+        }
+        // windows of a capture still running are being moved away
+        mThumbnailCache.cancel();
+        index.setActive(true);
+        showThumbnails(index, false);
+        index.setHibernationDeadline(0);
+        if (index.isHibernated()) {
+            // windows are indexed again as their stacks come
+            index.wake();
         }
         mCurrentTab = index;
-        relayoutWindows(mPosition);
+        mLayoutTransaction.begin();
+        try {
+            if (outgoing != null) {
+                outgoing.resizeWindows(mPosition);
+            }
+            index.resizeWindows(mPosition);
+        } finally {
+            mLayoutTransaction.commit();
+        }
+        if (mCurrentButton != null && mCurrentButton != button) {
+            mCurrentButton.setActive(false);
+        }
+        button.setActive(true);
+        mCurrentButton = button;
+        Metrics.TAB_SWITCH.record(System.nanoTime() - start);
+        scheduleCapture();
+        notifyTabsChanged();
     }
 
     /**
      * Method adds tab to TabContainer
      */
-    public boolean addWindow (ViewGroup ghostLayer) {
+    public boolean addWindow (GhostLayer ghostLayer) {
+        return addWindow(ghostLayer, null, null);
+    }
+
+    /**
+     * Method adds window with given intent and floating position to the active tab
+     */
+    public boolean addWindow (GhostLayer ghostLayer, Intent intent, Rect floatingPosition) {
         for (Tab t : this) {
             if (t.isActive()) {
-                return t.addWindow(mContext, ghostLayer);
+                Window w = t.addWindow(mContext, ghostLayer, intent, floatingPosition);
+                if (w == null) {
+                    return false;
+                }
+                if (w.getStackId() != -1) {
+                    // got a pooled stack, otherwise it is indexed once created
+                    indexWindow(t, w);
+                }
+                scheduleCapture();
+                notifyTabsChanged();
+                return true;
             }
         }
         return false;
@@ -174,12 +354,19 @@ public class TabContainer extends ArrayList<Tab> {
      * Method removes window with given StackId
      */
     public boolean removeWindow (int stackId) {
-        // I look for the window in all available tabs.
-        // If found, it gets removed and the search stops.
-        for (Tab t : this) {
-            if (t.removeWindow(stackId)) {
-                return true;
+        Tab t = mTabIndex.remove(stackId);
+        if (t == null) {
+            // Not one of ours any more, e.g. a stack of a hibernated tab
+            return false;
+        }
+        mWindowIndex.remove(stackId);
+        mThumbnailCache.remove(stackId);
+        if (t.removeWindow(stackId)) {
+            if (t == mCurrentTab) {
+                scheduleCapture();
             }
+            notifyTabsChanged();
+            return true;
         }
         return false;
     }
@@ -188,23 +375,227 @@ public class TabContainer extends ArrayList<Tab> {
      * Method relayouts positions of tabs and windows
      */
     public void relayoutWindows(Rect pos) {
-        mPosition = pos;
-        Log.v(TAG,"relayout");
+        mPosition.set(pos);
+        if (DEBUG) {
+            Log.v(TAG,"relayout");
+        }
         for (int i=0; i<size(); i++) {
             get(i).resizeWindows(pos);
             ((TabButton) mTabsButtonsLayout.getChildAt(i)).updateGraphics();
         }
+        scheduleCapture();
     }
 
     public Window getWindowByStackID(int stackId){
-        for (int i=0; i<size(); i++) {
-            Tab tab = get(i);
-            for(int j=0;j<tab.size(); j++){
-                if(tab.get(j).getStackId() == stackId)
-                    return tab.get(j);
+        return mWindowIndex.get(stackId);
+    }
+
+    /**
+     * Method marks start and end of a drag relayouting the windows. Capture
+     * is cancelled when the drag starts and scheduled when it ends.
+     */
+    public void setDragging(boolean dragging) {
+        if (mDragging == dragging) {
+            return;
+        }
+        mDragging = dragging;
+        if (dragging) {
+            mTabsButtonsLayout.removeCallbacks(mCaptureTask);
+            Looper.myQueue().removeIdleHandler(mCaptureWhenIdle);
+            mThumbnailCache.cancel();
+        } else {
+            scheduleCapture();
+        }
+    }
+
+    /**
+     * Method (re)schedules capture of the active tab thumbnails, so that
+     * the capture follows the last change of its windows
+     */
+    private void scheduleCapture() {
+        if (mRestoring || mDragging || mCurrentTab == null) {
+            return;
+        }
+        mTabsButtonsLayout.removeCallbacks(mCaptureTask);
+        mTabsButtonsLayout.postDelayed(mCaptureTask, CAPTURE_DELAY_MS);
+    }
+
+    /**
+     * Method captures thumbnails of the active tab, while its windows are
+     * shown. The thumbnails are shown once the tab is deactivated.
+     */
+    private void captureThumbnails(Tab t) {
+        if (t == null || t != mCurrentTab || mDragging || t.isHibernated() || t.isEmpty()) {
+            return;
+        }
+        Resources res = mContext.getResources();
+        mThumbnailCache.capture(t, res.getDisplayMetrics().widthPixels, res.getDisplayMetrics().heightPixels);
+    }
+
+    /**
+     * Method shows (or hides) cached thumbnails on the tab button and ghosts of the tab
+     */
+    private void showThumbnails(Tab t, boolean show) {
+        int index = indexOf(t);
+        if (index < 0 || index >= mTabsButtonsLayout.getChildCount()) {
+            return;
+        }
+        TabButton button = (TabButton) mTabsButtonsLayout.getChildAt(index);
+        button.setThumbnail(show && !t.isEmpty() ? mThumbnailCache.get(t.get(0).getStackId()) : null);
+        for (int i = 0; i < t.size(); i++) {
+            Window w = t.get(i);
+            // hibernated windows keep showing thumbnail until relaunched
+            w.setThumbnail(show || w.getStackId() == -1
+                    ? mThumbnailCache.get(w.getStackId() != -1 ? w.getStackId() : w.getPreviousStackId())
+                    : null);
+        }
+    }
+
+    private void scheduleHibernation(Tab t) {
+        if (mHibernationTimeout <= 0) {
+            return;
+        }
+        t.setHibernationDeadline(SystemClock.uptimeMillis() + mHibernationTimeout);
+        // every deadline is the same timeout away, so a check already
+        // scheduled comes first
+        if (!mHibernationScheduled) {
+            mHibernationScheduled = true;
+            mTabsButtonsLayout.postDelayed(mHibernationCheck, mHibernationTimeout);
+        }
+    }
+
+    /**
+     * Method hibernates tabs whose deadline has passed and schedules the
+     * check for the next deadline
+     */
+    private void hibernateExpiredTabs() {
+        long now = SystemClock.uptimeMillis();
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < size(); i++) {
+            Tab t = get(i);
+            long deadline = t.getHibernationDeadline();
+            if (deadline == 0) {
+                continue;
+            }
+            if (deadline <= now) {
+                t.setHibernationDeadline(0);
+                hibernateTab(t);
+            } else {
+                next = Math.min(next, deadline);
+            }
+        }
+        if (next != Long.MAX_VALUE) {
+            mHibernationScheduled = true;
+            mTabsButtonsLayout.postDelayed(mHibernationCheck, next - now);
+        }
+    }
+
+    /**
+     * Method removes stacks of the inactive tab, so that its applications
+     * don't use memory while it is not shown
+     */
+    private void hibernateTab(Tab t) {
+        if (t == mCurrentTab || t.isHibernated() || !contains(t)) {
+            return;
+        }
+        if (DEBUG) {
+            Log.v(TAG, "Hibernating tab with " + t.size() + " windows");
+        }
+        unindexTab(t);
+        t.hibernate();
+    }
+
+    /**
+     * Method indexes window under its new stack id, thumbnail of the
+     * stack it had before hibernation moves along
+     */
+    private void indexWindow(Tab t, Window w) {
+        mThumbnailCache.rekey(w.getPreviousStackId(), w.getStackId());
+        mWindowIndex.put(w.getStackId(), w);
+        mTabIndex.put(w.getStackId(), t);
+    }
+
+    private void unindexTab(Tab t) {
+        for (int i = 0; i < t.size(); i++) {
+            int stackId = t.get(i).getStackId();
+            mWindowIndex.remove(stackId);
+            mTabIndex.remove(stackId);
+        }
+    }
+
+    /**
+     * Method stores tabs and their windows in the snapshot
+     */
+    void saveTo(WorkspaceStore.Snapshot snapshot) {
+        snapshot.mActiveTab = Math.max(0, indexOf(mCurrentTab));
+        for (int i = 0; i < size(); i++) {
+            Tab t = get(i);
+            ArrayList<WorkspaceStore.WindowEntry> windows = new ArrayList<WorkspaceStore.WindowEntry>(t.size());
+            for (int j = 0; j < t.size(); j++) {
+                Window w = t.get(j);
+                windows.add(new WorkspaceStore.WindowEntry(w.getIntent(), w.getLastFloatingPosition()));
             }
+            snapshot.mTabs.add(windows);
         }
-        return null;
+    }
+
+    /**
+     * Method recreates tabs and windows stored in the snapshot. Container
+     * must hold just the initial, empty tab. Launches of all windows are
+     * queued at once and run in parallel.
+     */
+    void restoreFrom(WorkspaceStore.Snapshot snapshot, GhostLayer ghostLayer) {
+        mRestoring = true;
+        try {
+            for (int i = 0; i < snapshot.mTabs.size(); i++) {
+                if (i > 0 && !addTab()) {
+                    break;
+                }
+                ArrayList<WorkspaceStore.WindowEntry> windows = snapshot.mTabs.get(i);
+                for (int j = 0; j < windows.size(); j++) {
+                    WorkspaceStore.WindowEntry w = windows.get(j);
+                    addWindow(ghostLayer, w.mIntent, w.mFloatingPosition);
+                }
+            }
+            if (snapshot.mActiveTab < mTabsButtonsLayout.getChildCount()) {
+                handleSwitchTab(mTabsButtonsLayout.getChildAt(snapshot.mActiveTab));
+            }
+        } finally {
+            mRestoring = false;
+        }
+        // restored applications are still starting, capture them later
+        scheduleCapture();
+    }
+
+    /**
+     * Method dumps per stack metrics of all windows
+     */
+    void dump(String prefix, PrintWriter writer) {
+        for (int i = 0; i < size(); i++) {
+            Tab t = get(i);
+            writer.print(prefix); writer.print("tab "); writer.print(i);
+            writer.print(t.isActive() ? " active" : ""); writer.print(" windows="); writer.print(t.size());
+            writer.print(" tiling hits="); writer.print(t.getTilingSolver().getHitCount());
+            writer.print(" misses="); writer.println(t.getTilingSolver().getMissCount());
+            for (int j = 0; j < t.size(); j++) {
+                Metrics.dumpStack(t.get(j).getStackId(), prefix + "  ", writer);
+            }
+        }
+    }
+
+    /**
+     * Returns divider between docked windows of the active tab at x, y
+     * moved by drags in the given direction, or -1
+     */
+    public int dividerAt(int x, int y, boolean vertical) {
+        return mCurrentTab != null ? mCurrentTab.dividerAt(x, y, vertical) : -1;
+    }
+
+    /**
+     * Method moves divider between docked windows of the active tab
+     */
+    public boolean moveDivider(int divider, int delta) {
+        return mCurrentTab != null && mCurrentTab.moveDivider(divider, delta);
     }
 
     public int currentTabWindowCount() {
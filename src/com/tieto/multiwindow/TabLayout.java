@@ -0,0 +1,312 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+/**
+ * Layout algorithms of the windows in a tab. Class does not depend on
+ * Android, so it can be built and measured on a plain JVM. Results are
+ * written into caller's array as left, top, right, bottom of every window.
+ */
+final class TabLayout {
+
+    /**
+     * Number of ints describing one window in the output array
+     */
+    static final int STRIDE = 4;
+
+    /**
+     * Weight windows get by default. Weights are relative, windows with
+     * equal weights get equal parts. Two default weights are more than
+     * any display is wide, so one weight unit is less than a pixel.
+     */
+    static final int DEFAULT_WEIGHT = 4096;
+
+    /**
+     * Smallest size a divider move may leave to a window
+     */
+    static final int MIN_TILE = 200;
+
+    /**
+     * Windows stacked top to bottom, heights follow weights
+     */
+    static final TilingStrategy VERTICAL = new Split(true);
+
+    /**
+     * Windows side by side, widths follow weights
+     */
+    static final TilingStrategy HORIZONTAL = new Split(false);
+
+    /**
+     * Windows in rows and columns of equal size, weights are not used
+     */
+    static final TilingStrategy GRID = new Grid();
+
+    /**
+     * First window on the left, the others stacked on the right
+     */
+    static final TilingStrategy MASTER_STACK = new MasterStack();
+
+    private TabLayout() {
+    }
+
+    /**
+     * Method cascades count windows over at least 4 steps, each of them
+     * has half of the width and height of the area.
+     */
+    static void cascade(int left, int top, int right, int bottom, int count, int[] out) {
+        int steps = Math.max(count, 4);
+        int dWidth = (right - left) / (2 * (steps + 1));
+        int dHeight = (bottom - top) / (2 * (steps + 1));
+        for (int i = 0; i < count; i++) {
+            int o = i * STRIDE;
+            out[o] = left + (steps - i) * dWidth;
+            out[o + 1] = top + (i + 1) * dHeight;
+            out[o + 2] = right - (i + 1) * dWidth;
+            out[o + 3] = bottom - (steps - i) * dHeight;
+        }
+    }
+
+    /**
+     * Returns strategy of the given name (as used in config), VERTICAL if
+     * the name is unknown
+     */
+    static TilingStrategy forName(String name) {
+        if ("horizontal".equals(name)) {
+            return HORIZONTAL;
+        } else if ("grid".equals(name)) {
+            return GRID;
+        } else if ("master_stack".equals(name)) {
+            return MASTER_STACK;
+        }
+        return VERTICAL;
+    }
+
+    /**
+     * Method splits length starting at start among n windows beginning
+     * with first, according to their weights. Window i gets the interval
+     * from edge(i) to edge(i + 1), written to out at offset (near edge)
+     * and offset + 2 (far edge) of its entry.
+     */
+    private static void split(int start, int length, int[] weights, int first, int n,
+            int[] out, int outFirst, int offset) {
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += weights[first + i];
+        }
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            int o = (outFirst + i) * STRIDE + offset;
+            out[o] = start + (int) (length * sum / total);
+            sum += weights[first + i];
+            out[o + 2] = start + (int) (length * sum / total);
+        }
+    }
+
+    /**
+     * Method moves the edge between windows a and a + 1, which share
+     * length of their group (of n windows from first) by weight, by delta.
+     */
+    private static boolean movePair(int length, int[] weights, int first, int n, int a, int delta) {
+        if (a < first || a + 1 >= first + n) {
+            return false;
+        }
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += weights[first + i];
+        }
+        int pair = weights[a] + weights[a + 1];
+        int pairPx = (int) ((long) length * pair / total);
+        if (pairPx <= 2 * MIN_TILE) {
+            return false;
+        }
+        int aPx = (int) ((long) length * weights[a] / total) + delta;
+        // rounding up keeps window a at aPx, one pixel of slack keeps a + 1 at MIN_TILE
+        aPx = Math.max(MIN_TILE, Math.min(pairPx - MIN_TILE - 1, aPx));
+        weights[a] = (int) (((long) pair * aPx + pairPx - 1) / pairPx);
+        weights[a + 1] = pair - weights[a];
+        return true;
+    }
+
+    /**
+     * Returns a of the edge between windows a and a + 1 (of n windows
+     * from first) closest to pos within slop, or -1. Edge is the far one
+     * at offset (0 for x, 1 for y) of window a.
+     */
+    private static int edgeAt(int[] out, int first, int n, int offset, int pos, int slop) {
+        int divider = -1;
+        int best = slop;
+        for (int a = first; a + 1 < first + n; a++) {
+            int o = a * STRIDE;
+            int distance = Math.abs(pos - out[o + offset + 2]);
+            if (distance < best) {
+                best = distance;
+                divider = a;
+            }
+        }
+        return divider;
+    }
+
+    private static final class Split implements TilingStrategy {
+        private final boolean mVertical;
+
+        Split(boolean vertical) {
+            mVertical = vertical;
+        }
+
+        @Override
+        public void layout(int left, int top, int right, int bottom, int count, int[] weights, int[] out) {
+            for (int i = 0; i < count; i++) {
+                int o = i * STRIDE;
+                if (mVertical) {
+                    out[o] = left;
+                    out[o + 2] = right;
+                } else {
+                    out[o + 1] = top;
+                    out[o + 3] = bottom;
+                }
+            }
+            if (mVertical) {
+                split(top, bottom - top, weights, 0, count, out, 0, 1);
+            } else {
+                split(left, right - left, weights, 0, count, out, 0, 0);
+            }
+        }
+
+        @Override
+        public boolean moveDivider(int left, int top, int right, int bottom, int count, int[] weights,
+                int divider, int delta) {
+            int length = mVertical ? bottom - top : right - left;
+            return movePair(length, weights, 0, count, divider, delta);
+        }
+
+        @Override
+        public int dividerAt(int count, int[] out, int x, int y, boolean vertical, int slop) {
+            if (vertical != mVertical) {
+                return -1;
+            }
+            return mVertical ? edgeAt(out, 0, count, 1, y, slop) : edgeAt(out, 0, count, 0, x, slop);
+        }
+    }
+
+    private static final class Grid implements TilingStrategy {
+
+        @Override
+        public void layout(int left, int top, int right, int bottom, int count, int[] weights, int[] out) {
+            if (count == 0) {
+                return;
+            }
+            int width = right - left;
+            int height = bottom - top;
+            int longSide = (int) Math.ceil(Math.sqrt(count));
+            int shortSide = (count + longSide - 1) / longSide;
+            // more columns than rows on wide areas, the other way round on tall ones
+            int columns = width >= height ? longSide : shortSide;
+            int rows = width >= height ? shortSide : longSide;
+            for (int i = 0; i < count; i++) {
+                int row = i / columns;
+                int column = i % columns;
+                // last row may be shorter, its windows share the whole width
+                int inRow = row == rows - 1 ? count - row * columns : columns;
+                int o = i * STRIDE;
+                out[o] = left + column * width / inRow;
+                out[o + 1] = top + row * height / rows;
+                out[o + 2] = left + (column + 1) * width / inRow;
+                out[o + 3] = top + (row + 1) * height / rows;
+            }
+        }
+
+        @Override
+        public boolean moveDivider(int left, int top, int right, int bottom, int count, int[] weights,
+                int divider, int delta) {
+            return false;
+        }
+
+        @Override
+        public int dividerAt(int count, int[] out, int x, int y, boolean vertical, int slop) {
+            return -1;
+        }
+    }
+
+    /**
+     * Master column width follows weight of the first window against
+     * DEFAULT_WEIGHT of the stack column. Stacked windows share the height
+     * by their weights. Divider 0 is the one between the columns, divider
+     * i > 0 is between stacked windows i and i + 1.
+     */
+    private static final class MasterStack implements TilingStrategy {
+
+        @Override
+        public void layout(int left, int top, int right, int bottom, int count, int[] weights, int[] out) {
+            if (count == 0) {
+                return;
+            }
+            if (count == 1) {
+                out[0] = left;
+                out[1] = top;
+                out[2] = right;
+                out[3] = bottom;
+                return;
+            }
+            int split = left + (int) ((long) (right - left) * weights[0] / (weights[0] + DEFAULT_WEIGHT));
+            out[0] = left;
+            out[1] = top;
+            out[2] = split;
+            out[3] = bottom;
+            for (int i = 1; i < count; i++) {
+                int o = i * STRIDE;
+                out[o] = split;
+                out[o + 2] = right;
+            }
+            split(top, bottom - top, weights, 1, count - 1, out, 1, 1);
+        }
+
+        @Override
+        public boolean moveDivider(int left, int top, int right, int bottom, int count, int[] weights,
+                int divider, int delta) {
+            if (count < 2) {
+                return false;
+            }
+            if (divider == 0) {
+                int width = right - left;
+                if (width <= 2 * MIN_TILE) {
+                    return false;
+                }
+                int masterPx = (int) ((long) width * weights[0] / (weights[0] + DEFAULT_WEIGHT)) + delta;
+                masterPx = Math.max(MIN_TILE, Math.min(width - MIN_TILE - 1, masterPx));
+                int stackPx = width - masterPx;
+                weights[0] = (int) (((long) DEFAULT_WEIGHT * masterPx + stackPx - 1) / stackPx);
+                return true;
+            }
+            return movePair(bottom - top, weights, 1, count - 1, divider, delta);
+        }
+
+        @Override
+        public int dividerAt(int count, int[] out, int x, int y, boolean vertical, int slop) {
+            if (count < 2) {
+                return -1;
+            }
+            if (vertical) {
+                // stacked windows are the only ones sharing horizontal edges
+                return edgeAt(out, 1, count - 1, 1, y, slop);
+            }
+            // right edge of the master column
+            return Math.abs(x - out[2]) < slop ? 0 : -1;
+        }
+    }
+}
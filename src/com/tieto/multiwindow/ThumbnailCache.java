@@ -0,0 +1,230 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.SurfaceControl;
+
+/**
+ * LRU cache of window thumbnails keyed by stack id, bounded by the total
+ * byte size of the bitmaps. Thumbnails are cut out of one screenshot taken
+ * while the windows are still shown. Screenshot and scaling are done on a
+ * capture thread, the cache itself has to be used on the UI thread only.
+ */
+public class ThumbnailCache {
+
+    private static final String TAG = "TMW";
+    private final LruCache<Integer, Bitmap> mCache;
+    private final int mScalePercent;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final Handler mUiHandler;
+
+    /**
+     * Capture each stack is waiting for. Thumbnails of stacks removed or
+     * rekeyed meanwhile are dropped when the capture comes back.
+     */
+    private final StackIdMap<Capture> mInFlight = new StackIdMap<Capture>();
+
+    /**
+     * Used on the capture thread only
+     */
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mDst = new Rect();
+
+    /**
+     * Windows of one capture. Positions are copied on the UI thread,
+     * thumbnails are drawn on the capture thread and handed back.
+     */
+    private final class Capture implements Runnable {
+        final int mDisplayWidth;
+        final int mDisplayHeight;
+        final int[] mStackIds;
+        final Rect[] mRects;
+        final Bitmap[] mThumbnails;
+        int mCount = 0;
+
+        final Runnable mDeliver = new Runnable() {
+            @Override
+            public void run() {
+                deliver(Capture.this);
+            }
+        };
+
+        Capture(int windows, int displayWidth, int displayHeight) {
+            mDisplayWidth = displayWidth;
+            mDisplayHeight = displayHeight;
+            mStackIds = new int[windows];
+            mRects = new Rect[windows];
+            mThumbnails = new Bitmap[windows];
+        }
+
+        @Override
+        public void run() {
+            Bitmap screen = SurfaceControl.screenshot(mDisplayWidth, mDisplayHeight);
+            if (screen == null) {
+                Log.e(TAG, "Can't take screenshot for thumbnails");
+            } else {
+                try {
+                    for (int i = 0; i < mCount; i++) {
+                        Rect src = mRects[i];
+                        int width = Math.max(1, src.width() * mScalePercent / 100);
+                        int height = Math.max(1, src.height() * mScalePercent / 100);
+                        Bitmap thumbnail = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+                        mDst.set(0, 0, width, height);
+                        new Canvas(thumbnail).drawBitmap(screen, src, mDst, mPaint);
+                        mThumbnails[i] = thumbnail;
+                    }
+                } finally {
+                    screen.recycle();
+                }
+            }
+            mUiHandler.post(mDeliver);
+        }
+    }
+
+    public ThumbnailCache(int maxBytes, int scalePercent) {
+        mScalePercent = scalePercent;
+        mCache = new LruCache<Integer, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Integer stackId, Bitmap thumbnail) {
+                return thumbnail.getByteCount();
+            }
+        };
+        mThread = new HandlerThread("TMW-thumbnails", Process.THREAD_PRIORITY_BACKGROUND);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+        mUiHandler = new Handler();
+    }
+
+    /**
+     * Method captures thumbnails of all visible windows of the tab. Has to
+     * be called while the windows are shown, windows out of the display
+     * keep their previous thumbnail. Thumbnails are cached once the
+     * capture thread is done with them.
+     */
+    public void capture(Tab tab, int displayWidth, int displayHeight) {
+        if (tab.isEmpty()) {
+            return;
+        }
+        Capture capture = new Capture(tab.size(), displayWidth, displayHeight);
+        for (int i = 0; i < tab.size(); i++) {
+            Window w = tab.get(i);
+            Rect src = w.getPosition();
+            if (w.getStackId() == -1 || !w.isVisible() || src.width() <= 0 || src.height() <= 0
+                    || src.left < 0 || src.top < 0
+                    || src.right > displayWidth || src.bottom > displayHeight) {
+                continue;
+            }
+            capture.mStackIds[capture.mCount] = w.getStackId();
+            capture.mRects[capture.mCount] = new Rect(src);
+            capture.mCount++;
+            mInFlight.put(w.getStackId(), capture);
+        }
+        if (capture.mCount > 0) {
+            mHandler.post(capture);
+        }
+    }
+
+    private void deliver(Capture capture) {
+        for (int i = 0; i < capture.mCount; i++) {
+            int stackId = capture.mStackIds[i];
+            Bitmap thumbnail = capture.mThumbnails[i];
+            if (mInFlight.get(stackId) != capture) {
+                // stack is gone, or a newer capture is on its way
+                if (thumbnail != null) {
+                    thumbnail.recycle();
+                }
+                continue;
+            }
+            mInFlight.remove(stackId);
+            if (thumbnail != null) {
+                mCache.put(stackId, thumbnail);
+            }
+        }
+    }
+
+    /**
+     * Method drops thumbnails of the captures still running, e.g. because
+     * the windows have moved since
+     */
+    public void cancel() {
+        mInFlight.clear();
+    }
+
+    /**
+     * Returns thumbnail of the stack or null
+     */
+    public Bitmap get(int stackId) {
+        if (stackId == -1) {
+            return null;
+        }
+        return mCache.get(stackId);
+    }
+
+    /**
+     * Method moves thumbnail to the new stack id of the window
+     */
+    public void rekey(int oldStackId, int newStackId) {
+        if (oldStackId == -1 || newStackId == -1) {
+            return;
+        }
+        mInFlight.remove(oldStackId);
+        Bitmap thumbnail = mCache.remove(oldStackId);
+        if (thumbnail != null) {
+            mCache.put(newStackId, thumbnail);
+        }
+    }
+
+    public void remove(int stackId) {
+        if (stackId != -1) {
+            mInFlight.remove(stackId);
+            mCache.remove(stackId);
+        }
+    }
+
+    public void clear() {
+        mInFlight.clear();
+        mCache.evictAll();
+    }
+
+    /**
+     * Method stops the capture thread, captures still queued are dropped
+     */
+    public void quit() {
+        mInFlight.clear();
+        mThread.quit();
+    }
+
+    int size() {
+        return mCache.size();
+    }
+
+    int maxSize() {
+        return mCache.maxSize();
+    }
+}
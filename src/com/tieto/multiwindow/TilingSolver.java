@@ -0,0 +1,111 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.Arrays;
+
+/**
+ * Class keeps weights of the windows of one tab and tiles them with the
+ * strategy given. The last result is cached per strategy, window count,
+ * bounds and weights, so repeated layout passes of an unchanged tab only
+ * compare a few ints. Solving does not allocate.
+ */
+final class TilingSolver {
+
+    private final int[] mWeights;
+    private final int[] mOut;
+    private TilingStrategy mStrategy = null;
+    private int mCount = -1;
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+    private boolean mWeightsChanged = true;
+    private int mHits = 0;
+    private int mMisses = 0;
+
+    TilingSolver(int maxWindows) {
+        mWeights = new int[maxWindows];
+        mOut = new int[maxWindows * TabLayout.STRIDE];
+        Arrays.fill(mWeights, TabLayout.DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Returns layout of count windows in the area, TabLayout.STRIDE ints
+     * per window. Returned array is owned by the solver.
+     */
+    int[] solve(TilingStrategy strategy, int left, int top, int right, int bottom, int count) {
+        if (!mWeightsChanged && strategy == mStrategy && count == mCount
+                && left == mLeft && top == mTop && right == mRight && bottom == mBottom) {
+            mHits++;
+            return mOut;
+        }
+        mMisses++;
+        strategy.layout(left, top, right, bottom, count, mWeights, mOut);
+        mStrategy = strategy;
+        mCount = count;
+        mLeft = left;
+        mTop = top;
+        mRight = right;
+        mBottom = bottom;
+        mWeightsChanged = false;
+        return mOut;
+    }
+
+    /**
+     * Method moves divider of the last solved layout by delta pixels.
+     * Returns false if there is no such divider.
+     */
+    boolean moveDivider(int divider, int delta) {
+        if (mStrategy == null || !mStrategy.moveDivider(mLeft, mTop, mRight, mBottom, mCount,
+                mWeights, divider, delta)) {
+            return false;
+        }
+        mWeightsChanged = true;
+        return true;
+    }
+
+    /**
+     * Returns divider of the last solved layout at the point, see
+     * TilingStrategy.dividerAt(), or -1 if nothing has been solved yet
+     */
+    int dividerAt(int x, int y, boolean vertical, int slop) {
+        if (mStrategy == null) {
+            return -1;
+        }
+        return mStrategy.dividerAt(mCount, mOut, x, y, vertical, slop);
+    }
+
+    /**
+     * Method drops weight of the removed window, windows after it move up
+     */
+    void onWindowRemoved(int index, int count) {
+        System.arraycopy(mWeights, index + 1, mWeights, index, count - index);
+        mWeights[count] = TabLayout.DEFAULT_WEIGHT;
+        mWeightsChanged = true;
+    }
+
+    int getHitCount() {
+        return mHits;
+    }
+
+    int getMissCount() {
+        return mMisses;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+/**
+ * Implement this interface to tile windows of a docked tab. Implementations
+ * must not depend on Android and must not allocate, as they run on every
+ * layout pass. Results are written into out as left, top, right, bottom of
+ * every window (TabLayout.STRIDE ints per window).
+ */
+interface TilingStrategy {
+
+    /**
+     * Method tiles count windows in the area. Every window has its weight,
+     * strategy decides how (and whether) weights are used.
+     */
+    void layout(int left, int top, int right, int bottom, int count, int[] weights, int[] out);
+
+    /**
+     * Method moves divider given by its index by delta pixels, changing
+     * weights of the windows next to it. Returns false if the strategy
+     * has no such divider.
+     */
+    boolean moveDivider(int left, int top, int right, int bottom, int count, int[] weights,
+            int divider, int delta);
+
+    /**
+     * Returns index (as taken by moveDivider()) of the divider of the
+     * layout in out closest to the point x, y within slop pixels, or -1.
+     * Dividers moved by vertical drags are horizontal edges, the others
+     * are vertical ones; vertical tells which of them are looked for.
+     */
+    int dividerAt(int count, int[] out, int x, int y, boolean vertical, int slop);
+}
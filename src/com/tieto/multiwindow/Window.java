@@ -18,153 +18,437 @@
 
 package com.tieto.multiwindow;
 
-import android.app.ActivityManagerNative;
-import android.app.IActivityManager;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.os.RemoteException;
 import android.util.Log;
 import android.view.View;
-import android.view.ViewGroup;
-import android.view.ViewGroup.LayoutParams;
-import android.widget.RelativeLayout;
 
 /**
  * Purpose of this class is to hold all information related to Window
  *
  */
-public class Window implements GhostView.WindowRelayoutListener{
+public class Window implements GhostLayer.WindowRelayoutListener{
+
+    /**
+     * Implement this interface to learn when the window gets its stack
+     */
+    interface StackListener {
+        /**
+         * Called on the UI thread once the window has a stack id
+         */
+        void onStackCreated(Window w);
+    }
 
-    private static final IActivityManager mService = ActivityManagerNative.getDefault();
     private static final String TAG = "TMW";
+    private static final boolean DEBUG = false;
 
     /**
      * This point is used for placing window in invisibile place. Window goes
      * there if its mVisibility is set to false;
      */
-    private static final Point mInvisiblePoint = new Point(10000, 10000);
+    static final Point mInvisiblePoint = new Point(10000, 10000);
 
     /**
      * Contains minimal window size
      */
     private static final Rect mMinWinSize = new Rect(0, 0, 200, 200);
+
+    /**
+     * Bounds of the interval between relayouts streamed while the ghost is
+     * dragged. Within them the interval follows relayout latency.
+     */
+    private static final long LIVE_FOLLOW_MIN_INTERVAL_NS = 16000000L;
+    private static final long LIVE_FOLLOW_MAX_INTERVAL_NS = 250000000L;
+
+    /**
+     * Counters of relayouts sent to the service and of those skipped
+     * because the window was already there.
+     */
+    private static int sIssuedRelayouts = 0;
+    private static int sSkippedRelayouts = 0;
+
     private Context mContext;
     private int mStackId;
-    private Rect mLastFloatingPosition = null;
-    private Rect mPosition;
+
+    /**
+     * Rects owned by the window. Callers' rects are copied in, never kept.
+     */
+    private final Rect mPosition = new Rect();
+    private final Rect mLastFloatingPosition = new Rect();
+    private boolean mHasFloatingPosition = false;
+    private final Rect mInvisiblePosition = new Rect();
     private boolean mVisibility = true;
-    private ViewGroup mGhostViewLayer;
-    private GhostView mGhostView;
+
+    /**
+     * Rect and visibility last sent to the service
+     */
+    private final Rect mSentPosition = new Rect();
+    private boolean mSentVisibility = false;
+    private boolean mSent = false;
+    private GhostLayer.Ghost mGhost;
+    private LayoutTransaction mLayoutTransaction;
+    private Runnable mOnMoved = null;
+    private StackListener mOnStackCreated = null;
+    private AppLaunchExecutor mAppLauncher;
+    private LeakDetector.Tracker mLeakTracker;
+    private StackPool mStackPool;
+    private Intent mIntent;
+    private boolean mReleased = false;
+    private boolean mHibernated = false;
+    private boolean mCreating = false;
+    private int mPreviousStackId = -1;
+    private boolean mLiveFollow;
+    private long mLastLiveRelayout = 0;
+    private long mLiveInterval = 0;
+    private final Rect mLivePosition = new Rect();
+
+    private final AppLaunchExecutor.LaunchListener mLaunchListener = new AppLaunchExecutor.LaunchListener() {
+        @Override
+        public void onLaunchFinished(int stackId, boolean success) {
+            if (mGhost != null) {
+                if (success) {
+                    // application shows itself now, thumbnail is not needed
+                    mGhost.setThumbnail(null);
+                } else {
+                    mGhost.setLaunchFailed(true);
+                }
+            }
+        }
+    };
+
+    private final StackDispatcher.CreateCallback mCreated = new StackDispatcher.CreateCallback() {
+        @Override
+        public void onStackCreated(int stackId) {
+            mCreating = false;
+            if (stackId == -1) {
+                Log.e(TAG, "Can't create stack for " + mIntent);
+                if (mGhost != null) {
+                    mGhost.setLaunchFailed(true);
+                }
+                return;
+            }
+            if (mReleased || mHibernated) {
+                // window doesn't want the stack any more
+                mLayoutTransaction.removeWindow(stackId);
+                return;
+            }
+            mStackId = stackId;
+            onStackReady();
+            // layout pass has been done without the stack, place it now
+            relayoutInternal();
+        }
+    };
 
     /**
      * Implements constructor, which creates window and starts application in it.
      */
-    public Window(Rect position, Context context, ViewGroup ghostViewLayer) {
+    public Window(Rect position, Context context, GhostLayer ghostLayer,
+            LayoutTransaction transaction, AppLaunchExecutor launcher, StackPool pool) {
+        mLayoutTransaction = transaction;
+        mAppLauncher = launcher;
         String cls = context.getString(R.string.default_app);
         String pkg = cls.substring(0, cls.lastIndexOf('.'));
         ComponentName cn = new ComponentName(pkg, cls);
         Intent intent = new Intent();
         intent.setComponent(cn);
-        initWindow(position, context, intent, ghostViewLayer);
+        initWindow(position, context, intent, ghostLayer, pool);
     }
 
-    public Window(Rect position, Context context, Intent intent, ViewGroup ghostViewLayer) {
-        initWindow(position, context, intent, ghostViewLayer);
+    public Window(Rect position, Context context, Intent intent, GhostLayer ghostLayer,
+            LayoutTransaction transaction, AppLaunchExecutor launcher, StackPool pool) {
+        mLayoutTransaction = transaction;
+        mAppLauncher = launcher;
+        initWindow(position, context, intent, ghostLayer, pool);
     }
 
-    private void initWindow(Rect position, Context context, Intent intent, ViewGroup ghostViewLayer) {
-        try {
-            mContext = context;
-            mGhostViewLayer = ghostViewLayer;
-            mPosition = position;
-            mStackId = mService.initWindow(position);
+    /**
+     * Method creates ghost, then takes stack from the pool (if any is
+     * ready) or queues creation of a new one.
+     */
+    private void initWindow(Rect position, Context context, Intent intent, GhostLayer ghostLayer,
+            StackPool pool) {
+        mContext = context;
+        mStackPool = pool;
+        mIntent = intent;
+        mLiveFollow = context.getResources().getBoolean(R.bool.live_window_follow);
+        mPosition.set(position);
+        mGhost = ghostLayer.addGhost(this);
+        mLeakTracker = LeakDetector.track(this, "window");
+        acquireStack();
+    }
 
-            RelativeLayout.LayoutParams layoutParams = new RelativeLayout.LayoutParams(mPosition.width(), mPosition.height());
-            mGhostView = new GhostView(context, this);
-            mGhostView.setLayoutParams(layoutParams);
-            mGhostViewLayer.addView(mGhostView);
+    /**
+     * Method takes stack from the pool and launches the application in it.
+     * If the pool is empty, creation of a stack is queued on the dispatcher
+     * thread and the application is launched once the stack is there, so
+     * the UI thread never waits for the service.
+     */
+    private void acquireStack() {
+        mStackId = mStackPool != null ? mStackPool.acquire() : -1;
+        if (mStackId != -1) {
+            onStackReady();
+        } else {
+            mCreating = true;
+            mLayoutTransaction.createWindow(mPosition, mCreated);
+        }
+    }
 
+    private void onStackReady() {
+        Metrics.onStackCreated(mStackId);
+        if (DEBUG) {
             Log.v(TAG,"window stackid: " + mStackId);
-            new AppLauncher(intent).start();
-        } catch (RemoteException e) {
-            Log.e(TAG, e.toString());
+        }
+        mAppLauncher.launch(mIntent, mStackId, mLaunchListener);
+        if (mOnStackCreated != null) {
+            mOnStackCreated.onStackCreated(this);
         }
     }
 
     public void windowRemovedExternally() {
-        mGhostViewLayer.removeView(mGhostView);
-        mGhostView = null;
-        mStackId = -1;
+        release();
     }
 
+    /**
+     * Method removes window's stack from the service and releases the
+     * window. Stack still being created is removed once it is there.
+     */
     public void removeWindow() throws RemoteException {
-        Log.v(TAG,"finalize");
         if (mStackId != -1) {
-            try {
-                setVisibility(false);
-                mService.removeWindow(mStackId);
-                windowRemovedExternally();
-            } catch (RemoteException e) {
-                Log.e(TAG, e.toString());
-            }
+            mLayoutTransaction.removeWindow(mStackId);
         }
+        release();
     }
 
     /**
-     * Method implements quasi-destructor of the Window instance
-     * It removes Window having mStackId from MultiWindow stack
+     * Method releases everything the window holds on our side (pending
+     * launch, ghost view). Stack itself is not touched, so it has to be
+     * already removed or be removed by the caller.
      */
-    @Override
-    protected void finalize() throws Throwable {
-        super.finalize();
-        removeWindow();
+    void release() {
+        if (mReleased) {
+            return;
+        }
+        mReleased = true;
+        if (mStackId != -1) {
+            mAppLauncher.cancel(mStackId);
+            Metrics.onStackRemoved(mStackId);
+        }
+        if (mGhost != null) {
+            mGhost.release();
+            mGhost = null;
+        }
+        if (mLeakTracker != null) {
+            mLeakTracker.release();
+            mLeakTracker = null;
+        }
+        mStackId = -1;
+    }
+
+    /**
+     * Method removes window's stack (and so its application) but keeps
+     * everything needed to recreate it with wake()
+     */
+    void hibernate() {
+        if (mReleased || mHibernated) {
+            return;
+        }
+        mHibernated = true;
+        if (mStackId == -1) {
+            // still being created, the stack is removed once it is there
+            return;
+        }
+        mAppLauncher.cancel(mStackId);
+        Metrics.onStackRemoved(mStackId);
+        mLayoutTransaction.removeWindow(mStackId);
+        mPreviousStackId = mStackId;
+        mStackId = -1;
+        mSent = false;
+    }
+
+    /**
+     * Returns intent the window's application has been launched with
+     */
+    Intent getIntent() {
+        return mIntent;
+    }
+
+    /**
+     * Returns position the window had in floating mode, or null
+     */
+    Rect getLastFloatingPosition() {
+        return mHasFloatingPosition ? mLastFloatingPosition : null;
+    }
+
+    /**
+     * Method sets position the window gets in floating mode
+     */
+    void setLastFloatingPosition(Rect r) {
+        mHasFloatingPosition = r != null;
+        if (r != null) {
+            mLastFloatingPosition.set(r);
+        }
+    }
+
+    /**
+     * Returns stack id the window had before it was hibernated
+     */
+    int getPreviousStackId() {
+        return mPreviousStackId;
+    }
+
+    /**
+     * Method sets thumbnail shown by the window's ghost, null removes it
+     */
+    void setThumbnail(Bitmap thumbnail) {
+        if (mGhost != null) {
+            mGhost.setThumbnail(thumbnail);
+        }
+    }
+
+    /**
+     * Returns current position of the window. Rect must not be modified.
+     */
+    Rect getPosition() {
+        return mPosition;
+    }
+
+    /**
+     * Method recreates stack of the hibernated window and relaunches its
+     * application. Window gets new stack id, the stack listener is told
+     * about it. Pooled stack is placed by the next relayout, a new one
+     * once it is created.
+     */
+    void wake() {
+        if (!mHibernated) {
+            return;
+        }
+        mHibernated = false;
+        if (!mCreating) {
+            acquireStack();
+        }
+    }
+
+    /**
+     * Returns true if window's stack has been removed by hibernate()
+     */
+    boolean isHibernated() {
+        return mHibernated;
     }
 
     /**
      * Method resizes window to the position and size given
      */
     public void resize(Rect rw) {
-        if (rw.width() < mMinWinSize.width()) {
-            rw.right = rw.left + mMinWinSize.width();
+        resize(rw, mVisibility);
+    }
+
+    /**
+     * Method resizes window and sets its visibility with a single relayout
+     */
+    public void resize(Rect rw, boolean vis) {
+        mPosition.set(rw);
+        if (mPosition.width() < mMinWinSize.width()) {
+            mPosition.right = mPosition.left + mMinWinSize.width();
         }
-        if (rw.height() < mMinWinSize.height()) {
-            rw.bottom = rw.top + mMinWinSize.height();
+        if (mPosition.height() < mMinWinSize.height()) {
+            mPosition.bottom = mPosition.top + mMinWinSize.height();
         }
-        mPosition = rw;
+        mVisibility = vis;
         relayoutInternal();
     }
 
     public void setRect(Rect r){
-        Log.v("onWindowRelayout","setRect:"+r);
-        mPosition = r;
-        mLastFloatingPosition = new Rect(r);
+        if (DEBUG) {
+            Log.v("onWindowRelayout","setRect:"+r);
+        }
+        mPosition.set(r);
+        mLastFloatingPosition.set(r);
+        mHasFloatingPosition = true;
+        // window has been moved by the service, so that is where it is now
+        mSentPosition.set(r);
+        mSentVisibility = true;
+        mSent = true;
+        notifyMoved();
+    }
+
+    /**
+     * Method sets callback run when the floating position of the window
+     * is changed by the user or the service
+     */
+    void setOnMovedListener(Runnable listener) {
+        mOnMoved = listener;
+    }
+
+    /**
+     * Method sets listener told when the window gets a stack after it has
+     * been constructed, i.e. when a queued creation finishes or on wake()
+     */
+    void setOnStackCreatedListener(StackListener listener) {
+        mOnStackCreated = listener;
+    }
+
+    private void notifyMoved() {
+        if (mOnMoved != null) {
+            mOnMoved.run();
+        }
     }
 
     /**
      * Method relayout window with respect to visibility.
      */
     private void relayoutInternal() {
-        try {
-            Rect r;
-            if (mVisibility) {
-                r = mPosition;
-            } else {
-                r = new Rect(mInvisiblePoint.x,
-                        mInvisiblePoint.y,
-                        mInvisiblePoint.x + mPosition.width(),
-                        mInvisiblePoint.y + mPosition.height());
-            }
-            mGhostView.updatePosition(r);
-            mService.relayoutWindow(mStackId, r);
+        Rect r;
+        if (mVisibility) {
+            r = mPosition;
+        } else {
+            r = mInvisiblePosition;
+            r.set(mInvisiblePoint.x,
+                    mInvisiblePoint.y,
+                    mInvisiblePoint.x + mPosition.width(),
+                    mInvisiblePoint.y + mPosition.height());
+        }
+        // ghost is synced always, it may show a rect the window never got
+        // (dragged below the minimal size, or followed live)
+        if (mGhost != null) {
+            mGhost.updatePosition(r);
+        }
+        if (mStackId == -1) {
+            // hibernated, released or still being created, nothing to relayout
+            return;
+        }
+        if (mSent && mSentVisibility == mVisibility && mSentPosition.equals(r)) {
+            sSkippedRelayouts++;
+            return;
+        }
+        mLayoutTransaction.relayoutWindow(mStackId, r);
+        mSentPosition.set(r);
+        mSentVisibility = mVisibility;
+        mSent = true;
+        sIssuedRelayouts++;
+        if (DEBUG) {
             Log.v(TAG, "Relayout window: " + mStackId + " " + r);
-        } catch (RemoteException e) {
-            Log.e(TAG, e.toString());
         }
     }
 
+    /**
+     * Returns number of relayouts sent to the service
+     */
+    public static int getIssuedRelayoutCount() {
+        return sIssuedRelayouts;
+    }
+
+    /**
+     * Returns number of relayouts skipped as the window did not change
+     */
+    public static int getSkippedRelayoutCount() {
+        return sSkippedRelayouts;
+    }
+
     /**
      * Method sets window's visibility to the state given
      */
@@ -188,39 +472,65 @@ public class Window implements GhostView.WindowRelayoutListener{
     }
 
     public boolean restoreLastFloatingPosition() {
-        if (mLastFloatingPosition == null) {
+        if (!mHasFloatingPosition) {
             return false;
         } else {
-            mPosition = mLastFloatingPosition;
+            mPosition.set(mLastFloatingPosition);
             mVisibility = true;
             relayoutInternal();
         }
         return true;
     }
 
+    /**
+     * Method computes the rate positions of the dragged ghost are streamed
+     * at during this drag: twice the 90th percentile of relayout latency,
+     * so that a slow service gets fewer updates while a fast one gets one
+     * per frame.
+     */
     @Override
-    public void onWindowRelayout(Rect newPos) {
-        mLastFloatingPosition = new Rect(newPos);
-        resize(newPos);
+    public void onWindowMoveStarted() {
+        if (!mLiveFollow) {
+            return;
+        }
+        long interval = 2 * mLayoutTransaction.getLatencyTracker().getPercentile(90);
+        mLiveInterval = Math.max(LIVE_FOLLOW_MIN_INTERVAL_NS, Math.min(LIVE_FOLLOW_MAX_INTERVAL_NS, interval));
     }
 
     /**
-     * Adds private class AppLauncher to launch apps in separate threads.
+     * Method streams position of the dragged ghost to the window, at the
+     * rate computed when the drag started
      */
-    private class AppLauncher extends Thread {
-        private Intent intent;
-
-        AppLauncher(Intent launchIntent) {
-            intent = launchIntent;
+    @Override
+    public void onWindowMoving(Rect pos) {
+        if (!mLiveFollow || !mVisibility || mStackId == -1) {
+            return;
         }
-
-        @Override
-        public void run() {
-            try {
-                mService.startCornerstoneApp(intent, mStackId);
-            } catch (RemoteException e) {
-                Log.e(TAG, e.toString());
-            }
+        long now = System.nanoTime();
+        if (now - mLastLiveRelayout < mLiveInterval) {
+            return;
+        }
+        mLastLiveRelayout = now;
+        mLivePosition.set(pos);
+        if (mLivePosition.width() < mMinWinSize.width()) {
+            mLivePosition.right = mLivePosition.left + mMinWinSize.width();
         }
+        if (mLivePosition.height() < mMinWinSize.height()) {
+            mLivePosition.bottom = mLivePosition.top + mMinWinSize.height();
+        }
+        // ghost is not touched, it shows the drag on its own
+        mLayoutTransaction.relayoutWindow(mStackId, mLivePosition);
+        mSentPosition.set(mLivePosition);
+        mSentVisibility = true;
+        mSent = true;
+        sIssuedRelayouts++;
+    }
+
+    @Override
+    public void onWindowRelayout(Rect newPos) {
+        mLastFloatingPosition.set(newPos);
+        mHasFloatingPosition = true;
+        resize(newPos);
+        notifyMoved();
     }
 }
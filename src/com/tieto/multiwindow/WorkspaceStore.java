@@ -0,0 +1,249 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.AtomicFile;
+import android.util.Log;
+
+/**
+ * Purpose of this class is to persist the workspace (state flags, divider
+ * position, tabs and their windows) in a small versioned binary file.
+ * Changes are collected for a short while and the snapshot is then encoded
+ * on the UI thread and written on a background thread.
+ */
+public class WorkspaceStore {
+
+    /**
+     * Implement this interface to provide the snapshot being saved
+     */
+    public interface Source {
+        Snapshot getSnapshot();
+    }
+
+    /**
+     * Flags stored in the snapshot
+     */
+    static final int FLAG_DOCKED = 0x1;
+    static final int FLAG_RIGHT_SIDE = 0x2;
+    static final int FLAG_EXPANDED = 0x4;
+
+    private static final String TAG = "TMW";
+    private static final String FILE_NAME = "workspace.bin";
+    private static final int MAGIC = 0x544d5753; // TMWS
+    private static final int VERSION = 1;
+    private static final long SAVE_DELAY_MS = 500;
+
+    private final AtomicFile mFile;
+    private final Source mSource;
+    private final Handler mUiHandler = new Handler();
+    private final HandlerThread mIoThread;
+    private final Handler mIoHandler;
+    private boolean mSaveScheduled = false;
+
+    private final Runnable mSave = new Runnable() {
+        @Override
+        public void run() {
+            mSaveScheduled = false;
+            final byte[] data = encode(mSource.getSnapshot());
+            if (data == null) {
+                return;
+            }
+            mIoHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    write(data);
+                }
+            });
+        }
+    };
+
+    public WorkspaceStore(Context context, Source source) {
+        mFile = new AtomicFile(context.getFileStreamPath(FILE_NAME));
+        mSource = source;
+        mIoThread = new HandlerThread("TMW-workspace", Process.THREAD_PRIORITY_BACKGROUND);
+        mIoThread.start();
+        mIoHandler = new Handler(mIoThread.getLooper());
+    }
+
+    /**
+     * Method notes that the workspace has changed. Snapshot is saved after
+     * a short delay, further changes within it are saved together.
+     */
+    public void markDirty() {
+        if (!mSaveScheduled) {
+            mSaveScheduled = true;
+            mUiHandler.postDelayed(mSave, SAVE_DELAY_MS);
+        }
+    }
+
+    /**
+     * Method saves pending changes right away and stops the store
+     */
+    public void close() {
+        if (mSaveScheduled) {
+            mUiHandler.removeCallbacks(mSave);
+            mSave.run();
+        }
+        mIoThread.quitSafely();
+    }
+
+    /**
+     * Returns stored snapshot, or null if there is none or it can't be read
+     */
+    public Snapshot load() {
+        long start = System.nanoTime();
+        FileInputStream in = null;
+        try {
+            in = mFile.openRead();
+            Snapshot snapshot = decode(new DataInputStream(new BufferedInputStream(in)));
+            Metrics.WORKSPACE_LOAD.record(System.nanoTime() - start);
+            return snapshot;
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read workspace: " + e);
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+
+    private void write(byte[] data) {
+        FileOutputStream out = null;
+        try {
+            out = mFile.startWrite();
+            out.write(data);
+            mFile.finishWrite(out);
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write workspace: " + e);
+            if (out != null) {
+                mFile.failWrite(out);
+            }
+        }
+    }
+
+    static byte[] encode(Snapshot snapshot) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(snapshot.mFlags);
+            out.writeInt(snapshot.mDividerPosition);
+            out.writeShort(snapshot.mActiveTab);
+            out.writeShort(snapshot.mTabs.size());
+            for (int i = 0; i < snapshot.mTabs.size(); i++) {
+                ArrayList<WindowEntry> tab = snapshot.mTabs.get(i);
+                out.writeShort(tab.size());
+                for (int j = 0; j < tab.size(); j++) {
+                    WindowEntry w = tab.get(j);
+                    out.writeUTF(w.mIntent.toUri(0));
+                    out.writeBoolean(w.mFloatingPosition != null);
+                    if (w.mFloatingPosition != null) {
+                        out.writeInt(w.mFloatingPosition.left);
+                        out.writeInt(w.mFloatingPosition.top);
+                        out.writeInt(w.mFloatingPosition.right);
+                        out.writeInt(w.mFloatingPosition.bottom);
+                    }
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            Log.e(TAG, "Can't encode workspace: " + e);
+            return null;
+        }
+    }
+
+    static Snapshot decode(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("bad magic");
+        }
+        int version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported version " + version);
+        }
+        Snapshot snapshot = new Snapshot();
+        snapshot.mFlags = in.readByte();
+        snapshot.mDividerPosition = in.readInt();
+        snapshot.mActiveTab = in.readShort();
+        int tabs = in.readShort();
+        for (int i = 0; i < tabs; i++) {
+            int windows = in.readShort();
+            ArrayList<WindowEntry> tab = new ArrayList<WindowEntry>(windows);
+            for (int j = 0; j < windows; j++) {
+                String uri = in.readUTF();
+                Rect floating = null;
+                if (in.readBoolean()) {
+                    floating = new Rect(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                }
+                try {
+                    tab.add(new WindowEntry(Intent.parseUri(uri, 0), floating));
+                } catch (URISyntaxException e) {
+                    Log.e(TAG, "Skipping window with bad intent: " + uri);
+                }
+            }
+            snapshot.mTabs.add(tab);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Workspace as stored in the file
+     */
+    public static class Snapshot {
+        int mFlags;
+        int mDividerPosition;
+        int mActiveTab;
+        final ArrayList<ArrayList<WindowEntry>> mTabs = new ArrayList<ArrayList<WindowEntry>>();
+    }
+
+    public static class WindowEntry {
+        final Intent mIntent;
+        final Rect mFloatingPosition;
+
+        WindowEntry(Intent intent, Rect floatingPosition) {
+            mIntent = intent;
+            mFloatingPosition = floatingPosition;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import android.app.IActivityManager;
+import android.content.Intent;
+import android.graphics.Rect;
+import android.os.RemoteException;
+
+public class ActivityManagerStackServiceTest {
+
+    /**
+     * Activity manager counting its calls
+     */
+    private static class CountingActivityManager implements IActivityManager {
+        int mRelayouts = 0;
+        int mRemovals = 0;
+
+        @Override
+        public int initWindow(Rect position) throws RemoteException {
+            return 1;
+        }
+
+        @Override
+        public void relayoutWindow(int stackId, Rect position) throws RemoteException {
+            mRelayouts++;
+        }
+
+        @Override
+        public void removeWindow(int stackId) throws RemoteException {
+            mRemovals++;
+        }
+
+        @Override
+        public void startCornerstoneApp(Intent intent, int stackId) throws RemoteException {
+        }
+    }
+
+    /**
+     * Activity manager of a platform build with batched calls
+     */
+    private static class BatchedCountingActivityManager extends CountingActivityManager
+            implements BatchedActivityManager {
+        int mBatchedRelayouts = 0;
+        int mBatchedRemovals = 0;
+        int mLastCount = 0;
+
+        @Override
+        public void relayoutWindows(int[] stackIds, Rect[] rects, int count) throws RemoteException {
+            mBatchedRelayouts++;
+            mLastCount = count;
+        }
+
+        @Override
+        public void removeWindows(int[] stackIds, int count) throws RemoteException {
+            mBatchedRemovals++;
+            mLastCount = count;
+        }
+    }
+
+    private static Rect[] rects(int count) {
+        Rect[] rects = new Rect[count];
+        for (int i = 0; i < count; i++) {
+            rects[i] = new Rect(0, i, 10, i + 1);
+        }
+        return rects;
+    }
+
+    @Test
+    public void batchedCallIsUsedWhenDeclared() throws RemoteException {
+        BatchedCountingActivityManager am = new BatchedCountingActivityManager();
+        StackService service = new ActivityManagerStackService(am);
+        // arrays are longer than count, as the dispatcher reuses its buffers
+        service.relayoutWindows(new int[] { 1, 2, 3, 4, 0, 0 }, rects(6), 4);
+        assertEquals(1, am.mBatchedRelayouts);
+        assertEquals(4, am.mLastCount);
+        assertEquals(0, am.mRelayouts);
+        service.removeWindows(new int[] { 1, 2, 3, 0 }, 3);
+        assertEquals(1, am.mBatchedRemovals);
+        assertEquals(3, am.mLastCount);
+        assertEquals(0, am.mRemovals);
+    }
+
+    @Test
+    public void singleStackUsesPlainCall() throws RemoteException {
+        BatchedCountingActivityManager am = new BatchedCountingActivityManager();
+        StackService service = new ActivityManagerStackService(am);
+        service.relayoutWindows(new int[] { 1 }, rects(1), 1);
+        assertEquals(0, am.mBatchedRelayouts);
+        assertEquals(1, am.mRelayouts);
+    }
+
+    @Test
+    public void fallsBackToCallPerStack() throws RemoteException {
+        CountingActivityManager am = new CountingActivityManager();
+        StackService service = new ActivityManagerStackService(am);
+        service.relayoutWindows(new int[] { 1, 2, 3, 4, 0, 0 }, rects(6), 4);
+        assertEquals(4, am.mRelayouts);
+        service.removeWindows(new int[] { 1, 2, 3 }, 3);
+        assertEquals(3, am.mRemovals);
+    }
+}
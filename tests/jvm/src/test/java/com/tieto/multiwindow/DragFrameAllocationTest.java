@@ -0,0 +1,207 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.Message;
+import android.os.RemoteException;
+
+/**
+ * Drag frames of the sliding panel laid out the way MultiWindow.setPosition()
+ * does it, through Tab.resizeWindows() of a docked tab. Once warmed up, a
+ * frame must not allocate on the UI thread. Surefire runs the JVM without
+ * escape analysis, as ART doesn't remove allocations either.
+ */
+public class DragFrameAllocationTest {
+
+    private static final int CORNERSTONE_STACK = 1;
+    private static final int LAUNCHER_STACK = 2;
+    private static final int WINDOWS = 4;
+    private static final int FRAMES = 1000;
+    private static final int MIN_X = 400;
+    private static final int MAX_X = 1200;
+    private static final int STEP = 8;
+
+    /**
+     * Service which can be held inside a relayout, to make the UI thread
+     * queue a frame while the previous one is being sent
+     */
+    private static class GatedStackService implements StackService {
+        private int mNextStackId = 100;
+        private boolean mClosed = false;
+        private boolean mHolding = false;
+
+        @Override
+        public synchronized void relayoutWindows(int[] stackIds, Rect[] rects, int count) {
+            mHolding = true;
+            notifyAll();
+            while (mClosed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            mHolding = false;
+        }
+
+        @Override
+        public void removeWindows(int[] stackIds, int count) {
+        }
+
+        @Override
+        public synchronized int initWindow(Rect position) {
+            return mNextStackId++;
+        }
+
+        synchronized void close() {
+            mClosed = true;
+        }
+
+        /**
+         * Method waits until a relayout is held by the closed service
+         */
+        synchronized void awaitHolding() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 1000;
+            while (!mHolding) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    throw new AssertionError("no relayout reached the service");
+                }
+                wait(left);
+            }
+        }
+
+        synchronized void open() {
+            mClosed = false;
+            notifyAll();
+        }
+    }
+
+    private GatedStackService mService;
+    private StackDispatcher mDispatcher;
+    private LayoutTransaction mTransaction;
+    private AppLaunchExecutor mLauncher;
+    private Tab mTab;
+    private final int[] mPanel = new int[PanelLayout.SIZE];
+    private final Rect mRect = new Rect();
+    private final Rect mContent = new Rect();
+
+    @Before
+    public void setUp() throws RemoteException {
+        // test thread is the UI thread
+        Looper.prepareMainLooper();
+        // a running application has its message pool filled
+        Message[] messages = new Message[50];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = Message.obtain();
+        }
+        for (int i = 0; i < messages.length; i++) {
+            messages[i].recycle();
+        }
+        Context context = TestResources.createContext();
+        GhostLayer ghostLayer = new GhostLayer(context, null);
+        ghostLayer.layout(0, 0, 1920, 1080);
+        mService = new GatedStackService();
+        mDispatcher = new StackDispatcher(mService);
+        mTransaction = new LayoutTransaction(mDispatcher);
+        mLauncher = new AppLaunchExecutor(context);
+        mTab = new Tab(new State(), mTransaction, mLauncher, null, WINDOWS, TabLayout.VERTICAL);
+        for (int i = 0; i < WINDOWS; i++) {
+            mTab.addWindow(context, ghostLayer);
+        }
+        TestTabs.awaitStacks(mTab);
+    }
+
+    @After
+    public void tearDown() {
+        mService.open();
+        mTab.release();
+        mLauncher.shutdown();
+        mDispatcher.quit();
+    }
+
+    private void dragFrame(int x_pos) {
+        PanelLayout.compute(0, 0, 1920, 1080, 48, false, true, false, false, x_pos, mPanel);
+        set(mRect, PanelLayout.CORNERSTONE);
+        set(mContent, PanelLayout.CONTENT);
+        mTransaction.begin();
+        try {
+            mTransaction.relayoutWindow(CORNERSTONE_STACK, mRect);
+            set(mRect, PanelLayout.LAUNCHER);
+            mTransaction.relayoutWindow(LAUNCHER_STACK, mRect);
+            mTab.resizeWindows(mContent);
+        } finally {
+            mTransaction.commit();
+        }
+    }
+
+    private void set(Rect r, int area) {
+        r.set(mPanel[area], mPanel[area + 1], mPanel[area + 2], mPanel[area + 3]);
+    }
+
+    /**
+     * Method drags the panel back and forth over the whole range
+     */
+    private void drag(int frames) {
+        int x = MIN_X;
+        int step = STEP;
+        for (int frame = 0; frame < frames; frame++) {
+            dragFrame(x);
+            if (x + step > MAX_X || x + step < MIN_X) {
+                step = -step;
+            }
+            x += step;
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void steadyStateDragFrameDoesNotAllocate() throws InterruptedException {
+        // most commands the dispatcher holds at once: a frame being sent
+        // and the next one queued meanwhile
+        mService.close();
+        dragFrame(MIN_X);
+        mService.awaitHolding();
+        dragFrame(MIN_X + STEP);
+        mService.open();
+        drag(FRAMES);
+
+        long overhead = -allocatedBytes() + allocatedBytes();
+        long start = allocatedBytes();
+        drag(FRAMES);
+        long allocated = allocatedBytes() - start - overhead;
+        assertEquals("bytes allocated by " + FRAMES + " frames", 0, allocated);
+    }
+}
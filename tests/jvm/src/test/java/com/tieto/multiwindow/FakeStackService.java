@@ -0,0 +1,98 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.Rect;
+import android.os.RemoteException;
+
+/**
+ * StackService recording the calls it gets. Calls come from the
+ * dispatcher thread, tests wait for them with awaitCalls().
+ */
+class FakeStackService implements StackService {
+
+    /**
+     * One call of the service
+     */
+    static final class Call {
+        final String mName;
+        final int[] mStackIds;
+        final Rect[] mRects;
+
+        Call(String name, int[] stackIds, Rect[] rects, int count) {
+            mName = name;
+            mStackIds = new int[count];
+            System.arraycopy(stackIds, 0, mStackIds, 0, count);
+            mRects = new Rect[rects != null ? count : 0];
+            for (int i = 0; i < mRects.length; i++) {
+                mRects[i] = new Rect(rects[i]);
+            }
+        }
+    }
+
+    private final ArrayList<Call> mCalls = new ArrayList<Call>();
+    private int mNextStackId = 100;
+
+    @Override
+    public synchronized void relayoutWindows(int[] stackIds, Rect[] rects, int count) throws RemoteException {
+        mCalls.add(new Call("relayout", stackIds, rects, count));
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void removeWindows(int[] stackIds, int count) throws RemoteException {
+        mCalls.add(new Call("remove", stackIds, null, count));
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int initWindow(Rect position) throws RemoteException {
+        int stackId = mNextStackId++;
+        mCalls.add(new Call("init", new int[] { stackId }, new Rect[] { position }, 1));
+        notifyAll();
+        return stackId;
+    }
+
+    /**
+     * Method waits until the service has got count calls in total, fails
+     * after a second
+     */
+    synchronized void awaitCalls(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (mCalls.size() < count) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                throw new AssertionError("expected " + count + " calls, got " + mCalls.size());
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+    }
+
+    synchronized int getCallCount() {
+        return mCalls.size();
+    }
+
+    synchronized Call getCall(int index) {
+        return mCalls.get(index);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Drawing of the ghost layer. A frame must not allocate, as onDraw() runs
+ * on every frame of a drag. Surefire runs the JVM without escape analysis,
+ * as ART doesn't remove allocations either.
+ */
+public class GhostLayerDrawTest {
+
+    private static final int GHOSTS = 16;
+    private static final int FRAMES = 1000;
+
+    /**
+     * Canvas counting what would be drawn
+     */
+    private static class CountingCanvas extends Canvas {
+        int mRects = 0;
+        int mBitmaps = 0;
+        int mScaledBitmaps = 0;
+
+        @Override
+        public void drawRect(Rect r, Paint paint) {
+            mRects++;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            mBitmaps++;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+            mScaledBitmaps++;
+        }
+    }
+
+    private static final GhostLayer.WindowRelayoutListener NO_LISTENER = new GhostLayer.WindowRelayoutListener() {
+        @Override
+        public void onWindowRelayout(Rect newPos) {
+        }
+
+        @Override
+        public void onWindowMoveStarted() {
+        }
+
+        @Override
+        public void onWindowMoving(Rect pos) {
+        }
+    };
+
+    private GhostLayer mLayer;
+    private final CountingCanvas mCanvas = new CountingCanvas();
+
+    @Before
+    public void setUp() {
+        mLayer = new GhostLayer(TestResources.createContext(), null);
+        mLayer.onAttachedToWindow();
+        mLayer.layout(0, 0, 1920, 1080);
+        Bitmap thumbnail = Bitmap.createBitmap(240, 135, Bitmap.Config.RGB_565);
+        Rect r = new Rect();
+        for (int i = 0; i < GHOSTS; i++) {
+            GhostLayer.Ghost g = mLayer.addGhost(NO_LISTENER);
+            r.set(0, 0, 480, 270);
+            r.offset((i % 4) * 480, (i / 4) * 270);
+            g.updatePosition(r);
+            if (i % 2 == 0) {
+                g.setThumbnail(thumbnail);
+            }
+            if (i % 4 == 1) {
+                g.setLaunchFailed(true);
+            }
+        }
+        // hidden window, parked out of the screen
+        r.set(10000, 10000, 10480, 10270);
+        mLayer.addGhost(NO_LISTENER).updatePosition(r);
+    }
+
+    @After
+    public void tearDown() {
+        mLayer.onDetachedFromWindow();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+
+    private void draw(int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            mLayer.draw(mCanvas);
+        }
+    }
+
+    @Test
+    public void drawsVisibleGhostsOnly() {
+        mLayer.draw(mCanvas);
+        // fill and frame of every ghost, corners, thumbnails of every other
+        assertEquals(2 * GHOSTS, mCanvas.mRects);
+        assertEquals(4 * GHOSTS, mCanvas.mBitmaps);
+        assertEquals(GHOSTS / 2, mCanvas.mScaledBitmaps);
+    }
+
+    @Test
+    public void frameDoesNotAllocate() {
+        draw(FRAMES);
+
+        long overhead = -allocatedBytes() + allocatedBytes();
+        long start = allocatedBytes();
+        draw(FRAMES);
+        long allocated = allocatedBytes() - start - overhead;
+        assertEquals("bytes allocated by " + FRAMES + " frames", 0, allocated);
+        assertEquals(2 * FRAMES * 2 * GHOSTS, mCanvas.mRects);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.graphics.Rect;
+import android.os.Looper;
+
+/**
+ * Drag frames laid out the way MultiWindow.setPosition() does it: panel
+ * areas, then the docked windows tiled into the content area, all inside
+ * one layout transaction
+ */
+public class LayoutTransactionTest {
+
+    private static final int CORNERSTONE_STACK = 1;
+    private static final int LAUNCHER_STACK = 2;
+    private static final int WINDOWS = 4;
+
+    private FakeStackService mService;
+    private StackDispatcher mDispatcher;
+    private LayoutTransaction mTransaction;
+    private final int[] mPanel = new int[PanelLayout.SIZE];
+    private final Rect mRect = new Rect();
+    private final TilingSolver mSolver = new TilingSolver(WINDOWS);
+
+    @Before
+    public void setUp() {
+        // test thread is the UI thread
+        if (Looper.myLooper() == null) {
+            Looper.prepare();
+        }
+        mService = new FakeStackService();
+        mDispatcher = new StackDispatcher(mService);
+        mTransaction = new LayoutTransaction(mDispatcher);
+    }
+
+    @After
+    public void tearDown() {
+        mDispatcher.quit();
+    }
+
+    private void dragFrame(int x_pos) {
+        PanelLayout.compute(0, 0, 1920, 1080, 48, false, true, true, false, x_pos, mPanel);
+        mTransaction.begin();
+        try {
+            set(PanelLayout.CORNERSTONE);
+            mTransaction.relayoutWindow(CORNERSTONE_STACK, mRect);
+            set(PanelLayout.LAUNCHER);
+            mTransaction.relayoutWindow(LAUNCHER_STACK, mRect);
+            int c = PanelLayout.CONTENT;
+            int[] layout = mSolver.solve(TabLayout.VERTICAL, mPanel[c], mPanel[c + 1], mPanel[c + 2],
+                    mPanel[c + 3], WINDOWS);
+            for (int i = 0; i < WINDOWS; i++) {
+                int o = i * TabLayout.STRIDE;
+                mRect.set(layout[o], layout[o + 1], layout[o + 2], layout[o + 3]);
+                mTransaction.relayoutWindow(10 + i, mRect);
+            }
+        } finally {
+            mTransaction.commit();
+        }
+    }
+
+    private void set(int area) {
+        mRect.set(mPanel[area], mPanel[area + 1], mPanel[area + 2], mPanel[area + 3]);
+    }
+
+    @Test
+    public void oneServiceCallPerDragFrame() throws InterruptedException {
+        for (int frame = 0; frame < 100; frame++) {
+            dragFrame(400 + frame * 5);
+            assertEquals(frame + 1, mTransaction.getFlushCount());
+            mService.awaitCalls(frame + 1);
+            FakeStackService.Call call = mService.getCall(frame);
+            assertEquals("relayout", call.mName);
+            assertArrayEquals(new int[] { CORNERSTONE_STACK, LAUNCHER_STACK, 10, 11, 12, 13 }, call.mStackIds);
+            assertEquals(400 + frame * 5, call.mRects[0].left);
+            assertEquals(400 + frame * 5, call.mRects[2].right);
+        }
+        // nothing else is sent after the frames
+        Thread.sleep(50);
+        assertEquals(100, mService.getCallCount());
+    }
+
+    @Test
+    public void relayoutsOutsideTransactionAreSentAtOnce() throws InterruptedException {
+        mRect.set(0, 0, 10, 10);
+        mTransaction.relayoutWindow(5, mRect);
+        assertEquals(1, mTransaction.getFlushCount());
+        mService.awaitCalls(1);
+        assertArrayEquals(new int[] { 5 }, mService.getCall(0).mStackIds);
+    }
+
+    @Test
+    public void nestedTransactionsFlushOnce() throws InterruptedException {
+        mTransaction.begin();
+        dragFrame(500);
+        dragFrame(510);
+        assertEquals(0, mTransaction.getFlushCount());
+        mTransaction.commit();
+        assertEquals(1, mTransaction.getFlushCount());
+        mService.awaitCalls(1);
+        FakeStackService.Call call = mService.getCall(0);
+        // the dispatcher keeps only the latest rect of every stack
+        assertEquals(6, call.mStackIds.length);
+        assertEquals(510, call.mRects[0].left);
+    }
+
+    @Test
+    public void removedStackDropsItsPendingRelayout() throws InterruptedException {
+        mTransaction.begin();
+        mRect.set(0, 0, 10, 10);
+        mTransaction.relayoutWindow(5, mRect);
+        mTransaction.relayoutWindow(6, mRect);
+        mTransaction.removeWindow(5);
+        mTransaction.commit();
+        mService.awaitCalls(2);
+        assertEquals("remove", mService.getCall(0).mName);
+        assertArrayEquals(new int[] { 5 }, mService.getCall(0).mStackIds);
+        assertEquals("relayout", mService.getCall(1).mName);
+        assertArrayEquals(new int[] { 6 }, mService.getCall(1).mStackIds);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void commitNeedsBegin() {
+        mTransaction.commit();
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsTest {
+
+    @Before
+    public void setUp() {
+        // other tests in this JVM record as well
+        Metrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(true);
+        Metrics.reset();
+    }
+
+    private static String dump(String... args) {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        Metrics.dump("", writer, args);
+        writer.flush();
+        return out.toString();
+    }
+
+    @Test
+    public void resetStartsOverAfterDump() {
+        Metrics.TAB_SWITCH.record(1000000);
+        assertTrue(dump("--metrics-reset").contains("tab switch: count=1"));
+        assertEquals(0, Metrics.TAB_SWITCH.getCount());
+    }
+
+    @Test
+    public void recordingIsSwitchedByDumpArgs() {
+        dump("--metrics-off");
+        assertFalse(Metrics.isEnabled());
+        Metrics.TAB_SWITCH.record(1000000);
+        assertEquals(0, Metrics.TAB_SWITCH.getCount());
+        assertTrue(dump("--metrics-on").contains("metrics enabled=true"));
+        Metrics.TAB_SWITCH.record(1000000);
+        assertEquals(1, Metrics.TAB_SWITCH.getCount());
+    }
+
+    @Test
+    public void dumpWithoutArgsKeepsState() {
+        Metrics.TAB_SWITCH.record(1000000);
+        dump();
+        dump((String[]) null);
+        assertTrue(Metrics.isEnabled());
+        assertEquals(1, Metrics.TAB_SWITCH.getCount());
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.graphics.Rect;
+
+/**
+ * StackService which only hands out stack ids, for benchmarks running
+ * long enough for the recorded calls of FakeStackService to pile up
+ */
+class NullStackService implements StackService {
+    private int mNextStackId = 100;
+
+    @Override
+    public void relayoutWindows(int[] stackIds, Rect[] rects, int count) {
+    }
+
+    @Override
+    public void removeWindows(int[] stackIds, int count) {
+    }
+
+    @Override
+    public synchronized int initWindow(Rect position) {
+        return mNextStackId++;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PanelLayoutTest {
+
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int PANEL = 48;
+
+    private static int[] compute(boolean rightSide, boolean docked, boolean expanded, boolean floatingEdit,
+            int x_pos) {
+        int[] out = new int[PanelLayout.SIZE];
+        PanelLayout.compute(0, 0, WIDTH, HEIGHT, PANEL, rightSide, docked, expanded, floatingEdit, x_pos, out);
+        return out;
+    }
+
+    private static int[] area(int[] out, int offset) {
+        return Arrays.copyOfRange(out, offset, offset + 4);
+    }
+
+    @Test
+    public void dockedLeftExpanded() {
+        int[] out = compute(false, true, true, false, 600);
+        assertArrayEquals(new int[] { 600, 0, 648, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        assertArrayEquals(new int[] { 648, 0, WIDTH, HEIGHT }, area(out, PanelLayout.LAUNCHER));
+        assertArrayEquals(new int[] { 0, 0, 600, HEIGHT }, area(out, PanelLayout.CONTENT));
+    }
+
+    @Test
+    public void dockedLeftCollapsedMovesContentOffDisplay() {
+        int[] out = compute(false, true, false, false, 0);
+        assertArrayEquals(new int[] { 0, 0, PANEL, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        assertArrayEquals(new int[] { -WIDTH, 0, 0, HEIGHT }, area(out, PanelLayout.CONTENT));
+    }
+
+    @Test
+    public void dockedRightExpanded() {
+        int[] out = compute(true, true, true, false, 1320);
+        assertArrayEquals(new int[] { 1272, 0, 1320, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        assertArrayEquals(new int[] { 0, 0, 1272, HEIGHT }, area(out, PanelLayout.LAUNCHER));
+        assertArrayEquals(new int[] { 1320, 0, WIDTH, HEIGHT }, area(out, PanelLayout.CONTENT));
+    }
+
+    @Test
+    public void floatingLeft() {
+        int[] out = compute(false, false, false, false, 0);
+        assertArrayEquals(new int[] { 0, 0, PANEL, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        assertArrayEquals(new int[] { PANEL, 0, WIDTH, HEIGHT }, area(out, PanelLayout.CONTENT));
+    }
+
+    @Test
+    public void floatingEditCoversDisplay() {
+        int[] out = compute(false, false, false, true, 0);
+        assertArrayEquals(new int[] { 0, 0, WIDTH, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        out = compute(true, false, false, true, WIDTH);
+        assertArrayEquals(new int[] { 0, 0, WIDTH, HEIGHT }, area(out, PanelLayout.CORNERSTONE));
+        assertArrayEquals(new int[] { 0, 0, WIDTH - PANEL, HEIGHT }, area(out, PanelLayout.CONTENT));
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import android.view.MotionEvent;
+
+public class ResizeSchedulerTest {
+
+    /**
+     * Frame clock run by hand
+     */
+    private static class ManualFrameClock implements ResizeScheduler.FrameClock {
+        private Runnable mCallback;
+
+        @Override
+        public void postFrameCallback(Runnable callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void removeFrameCallback(Runnable callback) {
+            if (mCallback == callback) {
+                mCallback = null;
+            }
+        }
+
+        void frame() {
+            Runnable callback = mCallback;
+            mCallback = null;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Listener recording the positions, relayouts unless told otherwise
+     */
+    private static class RecordingListener implements ResizeLayer.ResizeLayerListener {
+        final ArrayList<Integer> mPositions = new ArrayList<Integer>();
+        int mFinished = -1;
+        boolean mRelayout = true;
+
+        @Override
+        public boolean onResizeEvent(int x_pos) {
+            mPositions.add(x_pos);
+            return mRelayout;
+        }
+
+        @Override
+        public void onResizeFinished(int x_pos) {
+            mFinished = x_pos;
+        }
+    }
+
+    private ManualFrameClock mClock;
+    private RecordingListener mListener;
+    private ResizeScheduler mScheduler;
+    private ResizeLayer mLayer;
+
+    @Before
+    public void setUp() {
+        mClock = new ManualFrameClock();
+        mListener = new RecordingListener();
+        mScheduler = new ResizeScheduler(mListener, mClock);
+        mLayer = new ResizeLayer(TestResources.createContext(), null);
+        mLayer.setResizeLayerListener(mListener, mScheduler);
+        mLayer.setResizingEnabled(true);
+        Metrics.reset();
+    }
+
+    private void touch(int action, int x) {
+        mLayer.onTouchEvent(MotionEvent.obtain(0, System.nanoTime() / 1000000L, action, x, 500, 0));
+    }
+
+    @Test
+    public void movesOfOneFrameMakeOneRelayoutAtLatestPosition() {
+        touch(MotionEvent.ACTION_DOWN, 100);
+        touch(MotionEvent.ACTION_MOVE, 200);
+        touch(MotionEvent.ACTION_MOVE, 210);
+        touch(MotionEvent.ACTION_MOVE, 220);
+        assertEquals(0, mListener.mPositions.size());
+        mClock.frame();
+        assertEquals(1, mListener.mPositions.size());
+        assertEquals(220, (int) mListener.mPositions.get(0));
+        mClock.frame();
+        assertEquals(1, mListener.mPositions.size());
+    }
+
+    @Test
+    public void upFlushesExactFinalPosition() {
+        touch(MotionEvent.ACTION_DOWN, 100);
+        touch(MotionEvent.ACTION_MOVE, 200);
+        mClock.frame();
+        touch(MotionEvent.ACTION_MOVE, 230);
+        touch(MotionEvent.ACTION_UP, 233);
+        assertFalse(mScheduler.isPending());
+        assertEquals(2, mListener.mPositions.size());
+        assertEquals(233, (int) mListener.mPositions.get(1));
+        assertEquals(233, mListener.mFinished);
+        // the move left pending is dropped, not delivered after the up
+        mClock.frame();
+        assertEquals(2, mListener.mPositions.size());
+    }
+
+    @Test
+    public void latencyIsRecordedOnlyForRelayouts() {
+        mListener.mRelayout = false;
+        mScheduler.schedule(200, System.nanoTime());
+        mClock.frame();
+        assertEquals(0, Metrics.TOUCH_TO_RELAYOUT.getCount());
+        mListener.mRelayout = true;
+        mScheduler.flush(210, System.nanoTime());
+        assertEquals(1, Metrics.TOUCH_TO_RELAYOUT.getCount());
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SnapPointsTest {
+
+    @Test
+    public void snapsToNearestPoint() {
+        SnapPoints points = new SnapPoints(1000, new int[] { 50, 25 }, 100, 900);
+        assertEquals(100, points.snap(0));
+        assertEquals(100, points.snap(170));
+        assertEquals(250, points.snap(180));
+        assertEquals(500, points.snap(500));
+        assertEquals(900, points.snap(2000));
+    }
+
+    @Test
+    public void pointsAreClamped() {
+        SnapPoints points = new SnapPoints(1000, new int[] { 0, 100 }, 100, 900);
+        assertEquals(100, points.snap(0));
+        assertEquals(900, points.snap(1000));
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup of windows by stack id, as done for every callback of the
+ * service, against the boxing HashMap it replaced
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackIdMapBenchmark {
+
+    @Param({ "8", "64", "512" })
+    public int stacks;
+
+    private final StackIdMap<Object> mMap = new StackIdMap<Object>();
+    private final HashMap<Integer, Object> mHashMap = new HashMap<Integer, Object>();
+    private int mNext = 0;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < stacks; i++) {
+            Object value = new Object();
+            // stack ids are given by the service in increasing order
+            mMap.put(100 + i * 3, value);
+            mHashMap.put(100 + i * 3, value);
+        }
+    }
+
+    private int nextStackId() {
+        mNext = mNext + 1 == stacks ? 0 : mNext + 1;
+        return 100 + mNext * 3;
+    }
+
+    @Benchmark
+    public Object stackIdMapGet() {
+        return mMap.get(nextStackId());
+    }
+
+    @Benchmark
+    public Object hashMapGet() {
+        return mHashMap.get(nextStackId());
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StackIdMapTest {
+
+    @Test
+    public void putGetRemove() {
+        StackIdMap<String> map = new StackIdMap<String>();
+        assertNull(map.put(5, "a"));
+        assertEquals("a", map.put(5, "b"));
+        assertEquals("b", map.get(5));
+        assertNull(map.get(6));
+        assertEquals(1, map.size());
+        assertEquals("b", map.remove(5));
+        assertNull(map.remove(5));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void negativeIdsAreKeys() {
+        StackIdMap<String> map = new StackIdMap<String>();
+        map.put(-1, "a");
+        map.put(0, "b");
+        assertEquals("a", map.get(-1));
+        assertEquals("b", map.get(0));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullValuesAreRejected() {
+        new StackIdMap<String>().put(1, null);
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        StackIdMap<Integer> map = new StackIdMap<Integer>(4);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertNull(map.get(i));
+        }
+    }
+
+    /**
+     * Random operations give the same results as HashMap, including
+     * removals from the middle of probe chains and growing
+     */
+    @Test
+    public void behavesAsHashMap() {
+        Random random = new Random(42);
+        StackIdMap<Integer> map = new StackIdMap<Integer>(2);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(512);
+            switch (random.nextInt(3)) {
+            case 0:
+                assertEquals(expected.put(key, i), map.put(key, i));
+                break;
+            case 1:
+                assertEquals(expected.remove(key), map.remove(key));
+                break;
+            default:
+                assertEquals(expected.get(key), map.get(key));
+                break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+    }
+}
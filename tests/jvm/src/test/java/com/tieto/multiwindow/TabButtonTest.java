@@ -0,0 +1,80 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
+
+public class TabButtonTest {
+
+    /**
+     * Resources counting the drawables loaded
+     */
+    private static class CountingResources extends TestResources {
+        int mLoaded = 0;
+
+        @Override
+        public Drawable getDrawable(int id) {
+            mLoaded++;
+            return super.getDrawable(id);
+        }
+    }
+
+    private static void createButton(CountingResources res) {
+        new TabButton(TestResources.createContext(res), new State());
+    }
+
+    @Test
+    public void backgroundsAreSharedByButtons() {
+        CountingResources res = new CountingResources();
+        createButton(res);
+        createButton(res);
+        createButton(res);
+        // switch and remove background, once
+        assertEquals(2, res.mLoaded);
+    }
+
+    @Test
+    public void backgroundsAreReloadedOnConfigurationChange() {
+        CountingResources res = new CountingResources();
+        createButton(res);
+        res.getConfiguration().densityDpi = 240;
+        createButton(res);
+        assertEquals(4, res.mLoaded);
+        res.getConfiguration().orientation = Configuration.ORIENTATION_PORTRAIT;
+        createButton(res);
+        createButton(res);
+        assertEquals(6, res.mLoaded);
+    }
+
+    @Test
+    public void backgroundsAreReloadedForOtherResources() {
+        CountingResources first = new CountingResources();
+        CountingResources second = new CountingResources();
+        createButton(first);
+        createButton(second);
+        createButton(first);
+        assertEquals(4, first.mLoaded);
+        assertEquals(2, second.mLoaded);
+    }
+}
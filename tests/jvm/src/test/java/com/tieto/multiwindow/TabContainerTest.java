@@ -0,0 +1,141 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.LinearLayout;
+
+public class TabContainerTest {
+
+    private static final int WINDOWS_PER_TAB = 4;
+
+    private StackDispatcher mDispatcher;
+    private AppLaunchExecutor mLauncher;
+    private TabContainer mContainer;
+    private LinearLayout mButtons;
+    private ThumbnailCache mThumbnails;
+
+    /**
+     * Method creates container of the given number of tabs with four
+     * windows each, the last tab is the active one
+     */
+    private void createContainer(int tabs, int hibernationTimeout) {
+        // test thread is the UI thread
+        Looper.prepareMainLooper();
+        TestResources res = new TestResources();
+        res.set(R.integer.max_tabs, Integer.toString(tabs));
+        res.set(R.integer.max_windows_per_tab, Integer.toString(WINDOWS_PER_TAB));
+        res.set(R.integer.tab_hibernation_timeout_ms, Integer.toString(hibernationTimeout));
+        Context context = TestResources.createContext(res);
+        GhostLayer ghostLayer = new GhostLayer(context, null);
+        ghostLayer.layout(0, 0, 1920, 1080);
+        mDispatcher = new StackDispatcher(new NullStackService());
+        mLauncher = new AppLaunchExecutor(context);
+        mButtons = new LinearLayout(context);
+        mThumbnails = new ThumbnailCache(4096 * 1024, 25);
+        mContainer = new TabContainer(new State(), context, mButtons, new LayoutTransaction(mDispatcher),
+                mLauncher, null, mThumbnails);
+        for (int i = 0; i < tabs; i++) {
+            if (i > 0) {
+                mContainer.addTab();
+            }
+            for (int j = 0; j < WINDOWS_PER_TAB; j++) {
+                mContainer.addWindow(ghostLayer);
+            }
+        }
+        for (int i = 0; i < tabs; i++) {
+            TestTabs.awaitStacks(mContainer.get(i));
+        }
+        mContainer.relayoutWindows(new Rect(48, 0, 1920, 1080));
+    }
+
+    @After
+    public void tearDown() {
+        mContainer.clearAll(mDispatcher);
+        mLauncher.shutdown();
+        mDispatcher.quit();
+        mThumbnails.quit();
+        Looper.runToIdle();
+    }
+
+    private void switchTo(int tab) {
+        mContainer.handleSwitchTab(mButtons.getChildAt(tab));
+    }
+
+    @Test
+    public void switchRelayoutsOnlyOutgoingAndIncomingTab() {
+        createContainer(16, 0);
+        switchTo(0);
+        int relayouts = Window.getIssuedRelayoutCount();
+        switchTo(1);
+        // four windows hidden and four shown, no matter how many tabs there are
+        assertEquals(2 * WINDOWS_PER_TAB, Window.getIssuedRelayoutCount() - relayouts);
+        assertTrue(mContainer.get(1).isActive());
+        assertFalse(mContainer.get(0).isActive());
+    }
+
+    @Test
+    public void inactiveTabsHibernateAfterTimeout() {
+        createContainer(4, 50);
+        switchTo(0);
+        assertFalse(mContainer.get(1).isHibernated());
+        SystemClock.sleep(60);
+        Looper.runToIdle();
+        assertFalse(mContainer.get(0).isHibernated());
+        for (int i = 1; i < 4; i++) {
+            assertTrue("tab " + i, mContainer.get(i).isHibernated());
+        }
+        // switching back wakes the tab, the one left is hibernated later
+        switchTo(2);
+        assertFalse(mContainer.get(2).isHibernated());
+        assertFalse(mContainer.get(0).isHibernated());
+        SystemClock.sleep(60);
+        Looper.runToIdle();
+        assertTrue(mContainer.get(0).isHibernated());
+        assertFalse(mContainer.get(2).isHibernated());
+    }
+
+    @Test
+    public void removalOfHibernatedStackKeepsThumbnail() {
+        createContainer(2, 50);
+        Tab t = mContainer.get(1);
+        mThumbnails.capture(t, 1920, 1080);
+        TestTabs.awaitThumbnail(mThumbnails, t.get(0).getStackId());
+        switchTo(0);
+        SystemClock.sleep(60);
+        Looper.runToIdle();
+        assertTrue(t.isHibernated());
+        // the removal callback of the stack the tab hibernated on
+        int stackId = t.get(0).getPreviousStackId();
+        assertFalse(mContainer.removeWindow(stackId));
+        assertNotNull(mThumbnails.get(stackId));
+        assertEquals(WINDOWS_PER_TAB, t.size());
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TabLayoutTest {
+
+    private static final int LEFT = 48;
+    private static final int TOP = 0;
+    private static final int RIGHT = 1920;
+    private static final int BOTTOM = 1080;
+
+    private static int[] weights(int count) {
+        int[] weights = new int[count];
+        Arrays.fill(weights, TabLayout.DEFAULT_WEIGHT);
+        return weights;
+    }
+
+    private static int[] layout(TilingStrategy strategy, int count, int[] weights) {
+        int[] out = new int[count * TabLayout.STRIDE];
+        strategy.layout(LEFT, TOP, RIGHT, BOTTOM, count, weights, out);
+        return out;
+    }
+
+    /**
+     * Checks that the windows cover the area exactly once
+     */
+    private static void assertTiles(int[] out, int count) {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            int o = i * TabLayout.STRIDE;
+            assertTrue(out[o] >= LEFT && out[o + 2] <= RIGHT && out[o] < out[o + 2]);
+            assertTrue(out[o + 1] >= TOP && out[o + 3] <= BOTTOM && out[o + 1] < out[o + 3]);
+            area += (long) (out[o + 2] - out[o]) * (out[o + 3] - out[o + 1]);
+            for (int j = 0; j < i; j++) {
+                int p = j * TabLayout.STRIDE;
+                boolean overlap = out[o] < out[p + 2] && out[p] < out[o + 2]
+                        && out[o + 1] < out[p + 3] && out[p + 1] < out[o + 3];
+                assertFalse("windows " + j + " and " + i + " overlap", overlap);
+            }
+        }
+        assertEquals((long) (RIGHT - LEFT) * (BOTTOM - TOP), area);
+    }
+
+    @Test
+    public void verticalSplitsHeightEqually() {
+        int[] out = layout(TabLayout.VERTICAL, 3, weights(3));
+        assertArrayEquals(new int[] {
+                LEFT, 0, RIGHT, 360,
+                LEFT, 360, RIGHT, 720,
+                LEFT, 720, RIGHT, 1080 }, out);
+    }
+
+    @Test
+    public void horizontalSplitsWidthEqually() {
+        int[] out = layout(TabLayout.HORIZONTAL, 2, weights(2));
+        assertArrayEquals(new int[] {
+                LEFT, TOP, 984, BOTTOM,
+                984, TOP, RIGHT, BOTTOM }, out);
+    }
+
+    @Test
+    public void strategiesTileTheArea() {
+        TilingStrategy[] strategies = {
+                TabLayout.VERTICAL, TabLayout.HORIZONTAL, TabLayout.GRID, TabLayout.MASTER_STACK };
+        for (TilingStrategy strategy : strategies) {
+            for (int count = 1; count <= 16; count++) {
+                assertTiles(layout(strategy, count, weights(count)), count);
+            }
+        }
+    }
+
+    @Test
+    public void gridHasMoreColumnsOnWideArea() {
+        int[] out = layout(TabLayout.GRID, 6, weights(6));
+        // 3 columns, 2 rows
+        assertEquals(out[2 * TabLayout.STRIDE + 1], out[1]);
+        assertEquals(BOTTOM / 2, out[3 * TabLayout.STRIDE + 1]);
+    }
+
+    @Test
+    public void masterTakesHalfByDefault() {
+        int[] out = layout(TabLayout.MASTER_STACK, 3, weights(3));
+        assertArrayEquals(new int[] {
+                LEFT, TOP, 984, BOTTOM,
+                984, 0, RIGHT, 540,
+                984, 540, RIGHT, 1080 }, out);
+    }
+
+    @Test
+    public void moveDividerChangesNeighboursOnly() {
+        int[] weights = weights(3);
+        assertTrue(TabLayout.VERTICAL.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 3, weights, 0, 100));
+        int[] out = layout(TabLayout.VERTICAL, 3, weights);
+        assertEquals(460, out[3]);
+        assertEquals(720, out[TabLayout.STRIDE + 3]);
+        assertEquals(TabLayout.DEFAULT_WEIGHT, weights[2]);
+    }
+
+    @Test
+    public void moveDividerKeepsMinimalTile() {
+        int[] weights = weights(2);
+        assertTrue(TabLayout.VERTICAL.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 2, weights, 0, -10000));
+        int[] out = layout(TabLayout.VERTICAL, 2, weights);
+        assertEquals(TabLayout.MIN_TILE, out[3] - out[1]);
+        assertFalse(TabLayout.VERTICAL.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 2, weights, 1, 10));
+        assertFalse(TabLayout.GRID.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 2, weights, 0, 10));
+    }
+
+    @Test
+    public void masterDividerMovesColumns() {
+        int[] weights = weights(3);
+        assertTrue(TabLayout.MASTER_STACK.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 3, weights, 0, 200));
+        int[] out = layout(TabLayout.MASTER_STACK, 3, weights);
+        assertEquals(1184, out[2], 1);
+        assertEquals(out[2], out[TabLayout.STRIDE]);
+    }
+
+    @Test
+    public void masterDividerNeedsTwoMinimalTiles() {
+        for (int width = 0; width <= 2 * TabLayout.MIN_TILE; width++) {
+            int[] weights = weights(2);
+            assertFalse(TabLayout.MASTER_STACK.moveDivider(0, 0, width, BOTTOM, 2, weights, 0, 10));
+            assertEquals(TabLayout.DEFAULT_WEIGHT, weights[0]);
+        }
+        int width = 2 * TabLayout.MIN_TILE + 1;
+        int[] weights = weights(2);
+        assertTrue(TabLayout.MASTER_STACK.moveDivider(0, 0, width, BOTTOM, 2, weights, 0, 10));
+        int[] out = new int[2 * TabLayout.STRIDE];
+        TabLayout.MASTER_STACK.layout(0, 0, width, BOTTOM, 2, weights, out);
+        assertEquals(TabLayout.MIN_TILE, out[2]);
+        assertEquals(TabLayout.MIN_TILE + 1, out[TabLayout.STRIDE + 2] - out[TabLayout.STRIDE]);
+    }
+
+    /**
+     * Random drags never leave the windows next to a moved divider
+     * smaller than MIN_TILE, whatever the rounding
+     */
+    @Test
+    public void draggedWindowsKeepMinimalTile() {
+        java.util.Random random = new java.util.Random(7);
+        TilingStrategy[] strategies = { TabLayout.VERTICAL, TabLayout.HORIZONTAL, TabLayout.MASTER_STACK };
+        for (int run = 0; run < 2000; run++) {
+            TilingStrategy strategy = strategies[random.nextInt(strategies.length)];
+            int count = 2 + random.nextInt(3);
+            int right = LEFT + 401 + random.nextInt(2200);
+            int bottom = 401 + random.nextInt(1600);
+            int[] weights = weights(count);
+            int[] out = new int[count * TabLayout.STRIDE];
+            for (int drag = 0; drag < 20; drag++) {
+                int divider = random.nextInt(count - 1);
+                if (!strategy.moveDivider(LEFT, TOP, right, bottom, count, weights, divider,
+                        random.nextInt(1201) - 600)) {
+                    continue;
+                }
+                strategy.layout(LEFT, TOP, right, bottom, count, weights, out);
+                int a = divider * TabLayout.STRIDE;
+                int b = (strategy == TabLayout.MASTER_STACK && divider == 0 ? 1 : divider + 1) * TabLayout.STRIDE;
+                boolean widths = strategy == TabLayout.HORIZONTAL
+                        || (strategy == TabLayout.MASTER_STACK && divider == 0);
+                int near = widths ? 0 : 1;
+                assertTrue(out[a + near + 2] - out[a + near] >= TabLayout.MIN_TILE);
+                assertTrue(out[b + near + 2] - out[b + near] >= TabLayout.MIN_TILE);
+            }
+        }
+    }
+
+    @Test
+    public void dividersAreFoundAlongTheirDragDirection() {
+        int[] vertical = layout(TabLayout.VERTICAL, 3, weights(3));
+        assertEquals(1, TabLayout.VERTICAL.dividerAt(3, vertical, 500, 700, true, 100));
+        assertEquals(-1, TabLayout.VERTICAL.dividerAt(3, vertical, 500, 700, false, 100));
+        assertEquals(-1, TabLayout.VERTICAL.dividerAt(3, vertical, 500, 540, true, 100));
+
+        int[] horizontal = layout(TabLayout.HORIZONTAL, 2, weights(2));
+        assertEquals(0, TabLayout.HORIZONTAL.dividerAt(2, horizontal, 1000, 500, false, 100));
+        assertEquals(-1, TabLayout.HORIZONTAL.dividerAt(2, horizontal, 1000, 500, true, 100));
+    }
+
+    @Test
+    public void masterStackHasColumnAndStackDividers() {
+        int[] out = layout(TabLayout.MASTER_STACK, 3, weights(3));
+        // columns meet at 984, stacked windows at 540
+        assertEquals(0, TabLayout.MASTER_STACK.dividerAt(3, out, 1000, 100, false, 100));
+        assertEquals(1, TabLayout.MASTER_STACK.dividerAt(3, out, 1500, 560, true, 100));
+        assertEquals(-1, TabLayout.MASTER_STACK.dividerAt(3, out, 1500, 100, false, 100));
+        assertEquals(-1, TabLayout.MASTER_STACK.dividerAt(1, out, 1000, 100, false, 100));
+    }
+
+    @Test
+    public void foundDividersCanBeMoved() {
+        TilingStrategy[] strategies = {
+                TabLayout.VERTICAL, TabLayout.HORIZONTAL, TabLayout.GRID, TabLayout.MASTER_STACK };
+        for (TilingStrategy strategy : strategies) {
+            int[] out = layout(strategy, 4, weights(4));
+            for (int x = LEFT; x < RIGHT; x += 20) {
+                for (int y = TOP; y < BOTTOM; y += 20) {
+                    for (int axis = 0; axis < 2; axis++) {
+                        int divider = strategy.dividerAt(4, out, x, y, axis == 0, 100);
+                        if (divider != -1) {
+                            assertTrue(strategy.moveDivider(LEFT, TOP, RIGHT, BOTTOM, 4, weights(4),
+                                    divider, 10));
+                        }
+                    }
+                }
+            }
+        }
+        int[] grid = layout(TabLayout.GRID, 4, weights(4));
+        assertEquals(-1, TabLayout.GRID.dividerAt(4, grid, 984, 540, true, 100));
+        assertEquals(-1, TabLayout.GRID.dividerAt(4, grid, 984, 540, false, 100));
+    }
+
+    @Test
+    public void cascadeStaysInArea() {
+        for (int count = 1; count <= 8; count++) {
+            int[] out = new int[count * TabLayout.STRIDE];
+            TabLayout.cascade(LEFT, TOP, RIGHT, BOTTOM, count, out);
+            for (int i = 0; i < count; i++) {
+                int o = i * TabLayout.STRIDE;
+                assertTrue(out[o] >= LEFT && out[o + 2] <= RIGHT && out[o] < out[o + 2]);
+                assertTrue(out[o + 1] >= TOP && out[o + 3] <= BOTTOM && out[o + 1] < out[o + 3]);
+            }
+        }
+    }
+
+    @Test
+    public void forNameFallsBackToVertical() {
+        assertTrue(TabLayout.forName("grid") == TabLayout.GRID);
+        assertTrue(TabLayout.forName("master_stack") == TabLayout.MASTER_STACK);
+        assertTrue(TabLayout.forName("horizontal") == TabLayout.HORIZONTAL);
+        assertTrue(TabLayout.forName("unknown") == TabLayout.VERTICAL);
+    }
+}
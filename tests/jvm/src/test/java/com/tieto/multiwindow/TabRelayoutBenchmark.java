@@ -0,0 +1,107 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Looper;
+
+/**
+ * Cost of relayouting a tab of 1 to 256 windows on the UI thread, docked
+ * and floating. The bounds change every frame, as while the panel is
+ * dragged, so every window is sent to the dispatcher. Time per window
+ * should stay the same as the tab grows.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabRelayoutBenchmark {
+
+    @Param({ "docked", "floating" })
+    public String mode;
+
+    @Param({ "1", "4", "16", "64", "256" })
+    public int windows;
+
+    private StackDispatcher mDispatcher;
+    private LayoutTransaction mTransaction;
+    private AppLaunchExecutor mLauncher;
+    private Tab mTab;
+    private final Rect mBounds = new Rect(48, 0, 1920, 1080);
+
+    @Setup
+    public void setUp() {
+        Looper.prepareMainLooper();
+        TestResources res = new TestResources();
+        // every window of the tab gets its launch queued
+        res.set(R.integer.max_windows_per_tab, Integer.toString(windows));
+        Context context = TestResources.createContext(res);
+        GhostLayer ghostLayer = new GhostLayer(context, null);
+        ghostLayer.layout(0, 0, 1920, 1080);
+        mDispatcher = new StackDispatcher(new NullStackService());
+        mTransaction = new LayoutTransaction(mDispatcher);
+        mLauncher = new AppLaunchExecutor(context);
+        State state = new State();
+        if ("floating".equals(mode)) {
+            state.setFlags(State.FLAG_DOCKED, 0);
+        }
+        mTab = new Tab(state, mTransaction, mLauncher, null, windows, TabLayout.GRID);
+        for (int i = 0; i < windows; i++) {
+            mTab.addWindow(context, ghostLayer);
+        }
+        TestTabs.awaitStacks(mTab);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mTab.release();
+        mLauncher.shutdown();
+        mDispatcher.quit();
+    }
+
+    @Benchmark
+    public Tab relayout() {
+        // panel drag: one pixel further every frame
+        mBounds.left = mBounds.left == 48 ? 49 : 48;
+        mTransaction.begin();
+        try {
+            mTab.resizeWindows(mBounds);
+        } finally {
+            mTransaction.commit();
+        }
+        return mTab;
+    }
+}
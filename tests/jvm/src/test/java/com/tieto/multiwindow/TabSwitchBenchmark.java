@@ -0,0 +1,116 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.LinearLayout;
+
+/**
+ * Latency of switching between two tabs of four windows, with 2 to 64
+ * tabs in the container. Only the outgoing and the incoming tab are
+ * touched, so the time should not depend on the number of tabs.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabSwitchBenchmark {
+
+    private static final int WINDOWS_PER_TAB = 4;
+
+    @Param({ "2", "4", "16", "64" })
+    public int tabs;
+
+    private StackDispatcher mDispatcher;
+    private AppLaunchExecutor mLauncher;
+    private TabContainer mContainer;
+    private ThumbnailCache mThumbnails;
+    private LinearLayout mButtons;
+    private int mNext = 0;
+
+    @Setup
+    public void setUp() {
+        Looper.prepareMainLooper();
+        TestResources res = new TestResources();
+        res.set(R.integer.max_tabs, Integer.toString(tabs));
+        res.set(R.integer.max_windows_per_tab, Integer.toString(WINDOWS_PER_TAB));
+        Context context = TestResources.createContext(res);
+        GhostLayer ghostLayer = new GhostLayer(context, null);
+        ghostLayer.layout(0, 0, 1920, 1080);
+        mDispatcher = new StackDispatcher(new NullStackService());
+        LayoutTransaction transaction = new LayoutTransaction(mDispatcher);
+        mLauncher = new AppLaunchExecutor(context);
+        mButtons = new LinearLayout(context);
+        mThumbnails = new ThumbnailCache(4096 * 1024, 25);
+        mContainer = new TabContainer(new State(), context, mButtons, transaction, mLauncher, null,
+                mThumbnails);
+        for (int i = 0; i < tabs; i++) {
+            if (i > 0) {
+                mContainer.addTab();
+            }
+            for (int j = 0; j < WINDOWS_PER_TAB; j++) {
+                mContainer.addWindow(ghostLayer);
+            }
+        }
+        for (int i = 0; i < tabs; i++) {
+            TestTabs.awaitStacks(mContainer.get(i));
+        }
+        mContainer.relayoutWindows(new Rect(48, 0, 1920, 1080));
+        // launches report back on this thread, as they do on the UI one
+        for (int i = 0; i < 10; i++) {
+            SystemClock.sleep(20);
+            Looper.runToIdle();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mContainer.clearAll(mDispatcher);
+        mLauncher.shutdown();
+        mDispatcher.quit();
+        mThumbnails.quit();
+    }
+
+    @Benchmark
+    public TabContainer switchTab() {
+        // back and forth between the first two tabs
+        mNext = 1 - mNext;
+        mContainer.handleSwitchTab(mButtons.getChildAt(mNext));
+        return mContainer;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.util.DisplayMetrics;
+
+/**
+ * Resources holding the values defined in res/values, found by the names
+ * of the ids in R. Tests may override single values with set(). Every
+ * drawable is an empty one, the display is 1920x1080 landscape at mdpi.
+ */
+class TestResources extends Resources {
+
+    private static final File VALUES_DIR = new File("../../res/values");
+
+    private final HashMap<Integer, String> mValues = new HashMap<Integer, String>();
+    private final DisplayMetrics mDisplayMetrics = new DisplayMetrics();
+    private final Configuration mConfiguration = new Configuration();
+
+    TestResources() {
+        HashMap<String, String> values = new HashMap<String, String>();
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            for (File file : VALUES_DIR.listFiles()) {
+                NodeList nodes = builder.parse(file).getDocumentElement().getChildNodes();
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                        Element e = (Element) nodes.item(i);
+                        values.put(e.getTagName() + "/" + e.getAttribute("name"), e.getTextContent().trim());
+                    }
+                }
+            }
+            for (Class<?> type : R.class.getClasses()) {
+                for (Field field : type.getFields()) {
+                    String value = values.get(type.getSimpleName() + "/" + field.getName());
+                    if (value != null) {
+                        mValues.put(field.getInt(null), value);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Can't read " + VALUES_DIR, e);
+        }
+        mDisplayMetrics.widthPixels = 1920;
+        mDisplayMetrics.heightPixels = 1080;
+        mConfiguration.orientation = Configuration.ORIENTATION_LANDSCAPE;
+        mConfiguration.densityDpi = 160;
+    }
+
+    /**
+     * Returns context with these resources
+     */
+    static Context createContext() {
+        return createContext(new TestResources());
+    }
+
+    /**
+     * Returns context with the given resources
+     */
+    static Context createContext(final Resources res) {
+        return new Context() {
+            @Override
+            public Resources getResources() {
+                return res;
+            }
+        };
+    }
+
+    /**
+     * Method overrides value of the resource
+     */
+    void set(int id, String value) {
+        mValues.put(id, value);
+    }
+
+    private String value(int id) {
+        String value = mValues.get(id);
+        if (value == null) {
+            throw new NotFoundException("0x" + Integer.toHexString(id));
+        }
+        return value;
+    }
+
+    @Override
+    public boolean getBoolean(int id) {
+        return Boolean.parseBoolean(value(id));
+    }
+
+    @Override
+    public int getInteger(int id) {
+        return Integer.parseInt(value(id));
+    }
+
+    @Override
+    public int getColor(int id) {
+        String value = value(id);
+        int color = (int) Long.parseLong(value.substring(1), 16);
+        // #rrggbb is opaque
+        return value.length() == 7 ? color | 0xff000000 : color;
+    }
+
+    @Override
+    public int getDimensionPixelSize(int id) {
+        // density is 1, so dp, sp and px are the same
+        return Math.round(Float.parseFloat(value(id).replaceAll("[a-z]+$", "")));
+    }
+
+    @Override
+    public String getString(int id) {
+        return value(id);
+    }
+
+    @Override
+    public Drawable getDrawable(int id) {
+        return new Drawable();
+    }
+
+    @Override
+    public DisplayMetrics getDisplayMetrics() {
+        return mDisplayMetrics;
+    }
+
+    /**
+     * Returns configuration of the resources, tests may change it
+     */
+    @Override
+    public Configuration getConfiguration() {
+        return mConfiguration;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Helpers for tests building tabs. Test thread has to be the UI thread.
+ */
+final class TestTabs {
+
+    private static final long TIMEOUT_MS = 1000;
+
+    private TestTabs() {
+    }
+
+    /**
+     * Method runs messages of the UI thread until all windows of the tab
+     * have got the stacks queued for them
+     */
+    static void awaitStacks(Tab t) {
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        for (int i = 0; i < t.size(); i++) {
+            while (t.get(i).getStackId() == -1) {
+                if (SystemClock.uptimeMillis() > deadline) {
+                    throw new AssertionError("window " + i + " got no stack");
+                }
+                SystemClock.sleep(1);
+                Looper.runToIdle();
+            }
+        }
+    }
+
+    /**
+     * Method runs messages of the UI thread until the thumbnail of the
+     * stack has been cached
+     */
+    static void awaitThumbnail(ThumbnailCache cache, int stackId) {
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while (cache.get(stackId) == null) {
+            if (SystemClock.uptimeMillis() > deadline) {
+                throw new AssertionError("stack " + stackId + " got no thumbnail");
+            }
+            SystemClock.sleep(1);
+            Looper.runToIdle();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.SystemClock;
+
+public class ThumbnailCacheTest {
+
+    private StackDispatcher mDispatcher;
+    private AppLaunchExecutor mLauncher;
+    private ThumbnailCache mThumbnails;
+    private Tab mTab;
+
+    @Before
+    public void setUp() {
+        // test thread is the UI thread
+        Looper.prepareMainLooper();
+        Context context = TestResources.createContext();
+        GhostLayer ghostLayer = new GhostLayer(context, null);
+        ghostLayer.layout(0, 0, 1920, 1080);
+        mDispatcher = new StackDispatcher(new NullStackService());
+        mLauncher = new AppLaunchExecutor(context);
+        mThumbnails = new ThumbnailCache(4096 * 1024, 25);
+        mTab = new Tab(new State(), new LayoutTransaction(mDispatcher), mLauncher, null, 4,
+                TabLayout.VERTICAL);
+        mTab.addWindow(context, ghostLayer);
+        mTab.addWindow(context, ghostLayer);
+        TestTabs.awaitStacks(mTab);
+        mTab.resizeWindows(new Rect(48, 0, 1920, 1080));
+    }
+
+    @After
+    public void tearDown() {
+        mTab.release();
+        mLauncher.shutdown();
+        mDispatcher.quit();
+        mThumbnails.quit();
+        Looper.runToIdle();
+    }
+
+    @Test
+    public void thumbnailsAreCachedWhenCaptureComesBack() {
+        mThumbnails.capture(mTab, 1920, 1080);
+        // nothing is drawn on the UI thread
+        assertNull(mThumbnails.get(mTab.get(0).getStackId()));
+        for (int i = 0; i < mTab.size(); i++) {
+            TestTabs.awaitThumbnail(mThumbnails, mTab.get(i).getStackId());
+            Rect position = mTab.get(i).getPosition();
+            Bitmap thumbnail = mThumbnails.get(mTab.get(i).getStackId());
+            assertEquals(position.width() / 4, thumbnail.getWidth());
+            assertEquals(position.height() / 4, thumbnail.getHeight());
+        }
+    }
+
+    @Test
+    public void stackRemovedWhileCapturingGetsNoThumbnail() {
+        int removed = mTab.get(0).getStackId();
+        mThumbnails.capture(mTab, 1920, 1080);
+        mThumbnails.remove(removed);
+        TestTabs.awaitThumbnail(mThumbnails, mTab.get(1).getStackId());
+        assertNull(mThumbnails.get(removed));
+    }
+
+    @Test
+    public void cancelledCaptureIsDropped() {
+        mThumbnails.capture(mTab, 1920, 1080);
+        mThumbnails.cancel();
+        for (int i = 0; i < 50; i++) {
+            SystemClock.sleep(1);
+            Looper.runToIdle();
+        }
+        assertEquals(0, mThumbnails.size());
+    }
+}
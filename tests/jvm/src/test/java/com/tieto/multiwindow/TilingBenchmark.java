@@ -0,0 +1,76 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of tiling a docked tab: solving from scratch (every drag frame of
+ * the divider changes the bounds) and the cached pass of an unchanged tab.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TilingBenchmark {
+
+    @Param({ "vertical", "horizontal", "grid", "master_stack" })
+    public String strategy;
+
+    @Param({ "1", "4", "16" })
+    public int windows;
+
+    private TilingStrategy mStrategy;
+    private TilingSolver mSolver;
+    private int mRight;
+
+    @Setup
+    public void setUp() {
+        mStrategy = TabLayout.forName(strategy);
+        mSolver = new TilingSolver(windows);
+        mRight = 1920;
+    }
+
+    @Benchmark
+    public int[] solveChangedBounds() {
+        // divider drag: one pixel further every frame
+        mRight = mRight == 1920 ? 1919 : 1920;
+        return mSolver.solve(mStrategy, 48, 0, mRight, 1080, windows);
+    }
+
+    @Benchmark
+    public int[] solveCached() {
+        return mSolver.solve(mStrategy, 48, 0, 1920, 1080, windows);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TilingSolverTest {
+
+    @Test
+    public void unchangedLayoutIsCached() {
+        TilingSolver solver = new TilingSolver(8);
+        int[] first = solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 4);
+        int[] second = solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 4);
+        assertSame(first, second);
+        assertEquals(1, solver.getMissCount());
+        assertEquals(1, solver.getHitCount());
+    }
+
+    @Test
+    public void changedInputsAreSolvedAgain() {
+        TilingSolver solver = new TilingSolver(8);
+        solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 4);
+        solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 3);
+        solver.solve(TabLayout.GRID, 0, 0, 1000, 1000, 3);
+        solver.solve(TabLayout.GRID, 0, 0, 900, 1000, 3);
+        assertEquals(4, solver.getMissCount());
+        assertEquals(0, solver.getHitCount());
+    }
+
+    @Test
+    public void movedDividerInvalidatesCache() {
+        TilingSolver solver = new TilingSolver(8);
+        int[] out = solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 2);
+        assertEquals(500, out[3]);
+        assertTrue(solver.moveDivider(0, 100));
+        out = solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 1000, 2);
+        assertEquals(600, out[3]);
+        assertEquals(2, solver.getMissCount());
+    }
+
+    @Test
+    public void noDividerBeforeFirstSolve() {
+        TilingSolver solver = new TilingSolver(8);
+        assertFalse(solver.moveDivider(0, 100));
+    }
+
+    @Test
+    public void removedWindowTakesItsWeight() {
+        TilingSolver solver = new TilingSolver(4);
+        solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 900, 3);
+        // first window grows, the second one shrinks
+        assertTrue(solver.moveDivider(0, 150));
+        solver.onWindowRemoved(0, 2);
+        int[] out = solver.solve(TabLayout.VERTICAL, 0, 0, 1000, 900, 2);
+        // shrunk window and the untouched one remain
+        assertTrue(out[3] - out[1] < out[7] - out[5]);
+        assertEquals(900, out[7]);
+    }
+}
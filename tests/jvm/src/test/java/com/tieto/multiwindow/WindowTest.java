@@ -0,0 +1,144 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.RemoteException;
+import android.os.SystemClock;
+
+public class WindowTest {
+
+    /**
+     * Service holding stack creation until it is opened
+     */
+    private static class GatedStackService extends FakeStackService {
+        final CountDownLatch mGate = new CountDownLatch(1);
+
+        @Override
+        public int initWindow(Rect position) throws RemoteException {
+            try {
+                mGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.initWindow(position);
+        }
+    }
+
+    private GatedStackService mService;
+    private StackDispatcher mDispatcher;
+    private AppLaunchExecutor mLauncher;
+    private Context mContext;
+    private GhostLayer mGhostLayer;
+    private Tab mTab;
+
+    @Before
+    public void setUp() {
+        // test thread is the UI thread
+        Looper.prepareMainLooper();
+        mContext = TestResources.createContext();
+        mGhostLayer = new GhostLayer(mContext, null);
+        mGhostLayer.layout(0, 0, 1920, 1080);
+        mService = new GatedStackService();
+        mDispatcher = new StackDispatcher(mService);
+        mLauncher = new AppLaunchExecutor(mContext);
+        mTab = new Tab(new State(), new LayoutTransaction(mDispatcher), mLauncher, null, 4,
+                TabLayout.VERTICAL);
+        mTab.resizeWindows(new Rect(48, 0, 1920, 1080));
+    }
+
+    @After
+    public void tearDown() {
+        mService.mGate.countDown();
+        mTab.release();
+        mLauncher.shutdown();
+        mDispatcher.quit();
+        Looper.runToIdle();
+    }
+
+    @Test
+    public void addingWindowDoesNotWaitForStack() throws InterruptedException {
+        Window w = mTab.addWindow(mContext, mGhostLayer);
+        assertEquals(-1, w.getStackId());
+        mService.mGate.countDown();
+        TestTabs.awaitStacks(mTab);
+        assertEquals(100, w.getStackId());
+        // new stack is placed where the window has been laid out meanwhile
+        mService.awaitCalls(2);
+        FakeStackService.Call relayout = mService.getCall(1);
+        assertEquals("relayout", relayout.mName);
+        assertEquals(100, relayout.mStackIds[0]);
+        assertEquals(w.getPosition(), relayout.mRects[0]);
+    }
+
+    @Test
+    public void stackCreatedForHibernatedWindowIsRemoved() throws InterruptedException {
+        Window w = mTab.addWindow(mContext, mGhostLayer);
+        mTab.hibernate();
+        assertTrue(w.isHibernated());
+        mService.mGate.countDown();
+        // stack id comes back on the UI thread, which then removes the stack
+        for (int i = 0; i < 1000 && mService.getCallCount() < 2; i++) {
+            SystemClock.sleep(1);
+            Looper.runToIdle();
+        }
+        mService.awaitCalls(2);
+        assertEquals("remove", mService.getCall(1).mName);
+        assertEquals(100, mService.getCall(1).mStackIds[0]);
+        assertEquals(-1, w.getStackId());
+
+        mTab.wake();
+        assertFalse(w.isHibernated());
+        TestTabs.awaitStacks(mTab);
+        assertEquals(101, w.getStackId());
+    }
+
+    @Test
+    public void wakeWhileCreatingKeepsQueuedStack() {
+        Window w = mTab.addWindow(mContext, mGhostLayer);
+        mTab.hibernate();
+        mTab.wake();
+        mService.mGate.countDown();
+        TestTabs.awaitStacks(mTab);
+        assertEquals(100, w.getStackId());
+        assertEquals(1, countCreated());
+    }
+
+    private int countCreated() {
+        int created = 0;
+        for (int i = 0; i < mService.getCallCount(); i++) {
+            if ("init".equals(mService.getCall(i).mName)) {
+                created++;
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.os.Looper;
+
+/**
+ * Cost of loading the workspace in onCreate and of encoding it on the UI
+ * thread before it's written, for workspaces up to the configured limits
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkspaceLoadBenchmark {
+
+    @Param({ "1", "4", "8" })
+    public int tabs;
+
+    @Param({ "1", "4", "8" })
+    public int windowsPerTab;
+
+    private File mDir;
+    private WorkspaceStore mStore;
+    private WorkspaceStore.Snapshot mSnapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (Looper.myLooper() == null) {
+            Looper.prepare();
+        }
+        mDir = Files.createTempDirectory("workspace").toFile();
+        mSnapshot = WorkspaceStoreTest.createSnapshot(tabs, windowsPerTab);
+        Files.write(new File(mDir, "workspace.bin").toPath(), WorkspaceStore.encode(mSnapshot));
+        mStore = new WorkspaceStore(WorkspaceStoreTest.createContext(mDir), new WorkspaceStore.Source() {
+            @Override
+            public WorkspaceStore.Snapshot getSnapshot() {
+                return mSnapshot;
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        mStore.close();
+        File[] files = mDir.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            files[i].delete();
+        }
+        mDir.delete();
+    }
+
+    @Benchmark
+    public WorkspaceStore.Snapshot load() {
+        return mStore.load();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return WorkspaceStore.encode(mSnapshot);
+    }
+}
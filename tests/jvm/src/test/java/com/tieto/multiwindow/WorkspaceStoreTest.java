@@ -0,0 +1,168 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.tieto.multiwindow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Rect;
+import android.os.Looper;
+
+public class WorkspaceStoreTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private WorkspaceStore mStore;
+    private int mSnapshotsTaken = 0;
+
+    /**
+     * Returns workspace of the given size, every other window floating
+     */
+    static WorkspaceStore.Snapshot createSnapshot(int tabs, int windowsPerTab) {
+        WorkspaceStore.Snapshot snapshot = new WorkspaceStore.Snapshot();
+        snapshot.mFlags = WorkspaceStore.FLAG_DOCKED | WorkspaceStore.FLAG_EXPANDED;
+        snapshot.mDividerPosition = 960;
+        snapshot.mActiveTab = tabs - 1;
+        for (int i = 0; i < tabs; i++) {
+            ArrayList<WorkspaceStore.WindowEntry> windows = new ArrayList<WorkspaceStore.WindowEntry>();
+            for (int j = 0; j < windowsPerTab; j++) {
+                Intent intent = new Intent().setComponent(
+                        new ComponentName("com.example.app" + j, "com.example.app" + j + ".MainActivity"));
+                Rect floating = j % 2 == 0 ? null : new Rect(j, j * 2, 400 + j, 300 + j);
+                windows.add(new WorkspaceStore.WindowEntry(intent, floating));
+            }
+            snapshot.mTabs.add(windows);
+        }
+        return snapshot;
+    }
+
+    static Context createContext(final File dir) {
+        return new Context() {
+            @Override
+            public File getFileStreamPath(String name) {
+                return new File(dir, name);
+            }
+        };
+    }
+
+    @Before
+    public void setUp() {
+        if (Looper.myLooper() == null) {
+            Looper.prepare();
+        }
+        mStore = new WorkspaceStore(createContext(mFolder.getRoot()), new WorkspaceStore.Source() {
+            @Override
+            public WorkspaceStore.Snapshot getSnapshot() {
+                mSnapshotsTaken++;
+                return createSnapshot(2, 3);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mStore.close();
+    }
+
+    @Test
+    public void snapshotSurvivesEncoding() throws IOException {
+        WorkspaceStore.Snapshot original = createSnapshot(3, 2);
+        byte[] data = WorkspaceStore.encode(original);
+        WorkspaceStore.Snapshot decoded = WorkspaceStore.decode(new DataInputStream(new ByteArrayInputStream(data)));
+        assertEquals(original.mFlags, decoded.mFlags);
+        assertEquals(original.mDividerPosition, decoded.mDividerPosition);
+        assertEquals(original.mActiveTab, decoded.mActiveTab);
+        assertEquals(original.mTabs.size(), decoded.mTabs.size());
+        for (int i = 0; i < original.mTabs.size(); i++) {
+            assertEquals(original.mTabs.get(i).size(), decoded.mTabs.get(i).size());
+            for (int j = 0; j < original.mTabs.get(i).size(); j++) {
+                WorkspaceStore.WindowEntry a = original.mTabs.get(i).get(j);
+                WorkspaceStore.WindowEntry b = decoded.mTabs.get(i).get(j);
+                assertEquals(a.mIntent, b.mIntent);
+                assertEquals(a.mFloatingPosition, b.mFloatingPosition);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignDataIsRejected() throws IOException {
+        WorkspaceStore.decode(new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 })));
+    }
+
+    @Test
+    public void nothingStoredYet() {
+        assertNull(mStore.load());
+    }
+
+    @Test
+    public void changesAreSavedTogether() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            mStore.markDirty();
+        }
+        Looper.runToIdle();
+        assertEquals(0, mSnapshotsTaken);
+        Thread.sleep(600);
+        Looper.runToIdle();
+        assertEquals(1, mSnapshotsTaken);
+
+        awaitFile();
+        WorkspaceStore.Snapshot loaded = mStore.load();
+        assertNotNull(loaded);
+        assertEquals(2, loaded.mTabs.size());
+        assertEquals(3, loaded.mTabs.get(1).size());
+    }
+
+    @Test
+    public void pendingChangesAreSavedOnClose() throws InterruptedException {
+        mStore.markDirty();
+        mStore.close();
+        assertEquals(1, mSnapshotsTaken);
+        awaitFile();
+    }
+
+    /**
+     * Method waits for the background write, fails after a second
+     */
+    private void awaitFile() throws InterruptedException {
+        File file = new File(mFolder.getRoot(), "workspace.bin");
+        for (int i = 0; i < 100 && !file.exists(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(file.exists());
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.app;
+
+import android.content.Intent;
+import android.graphics.Rect;
+
+/**
+ * Stub of the framework class for the JVM tests. The default activity
+ * manager creates no stacks and ignores all other calls.
+ */
+public abstract class ActivityManagerNative {
+    private static final IActivityManager sDefault = new IActivityManager() {
+        @Override
+        public int initWindow(Rect position) {
+            return -1;
+        }
+
+        @Override
+        public void relayoutWindow(int stackId, Rect position) {
+        }
+
+        @Override
+        public void removeWindow(int stackId) {
+        }
+
+        @Override
+        public void startCornerstoneApp(Intent intent, int stackId) {
+        }
+    };
+
+    public static IActivityManager getDefault() {
+        return sDefault;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.app;
+
+import android.content.Intent;
+import android.graphics.Rect;
+import android.os.RemoteException;
+
+/**
+ * Stub of the multiwindow part of the platform interface for the JVM tests
+ */
+public interface IActivityManager {
+
+    int initWindow(Rect position) throws RemoteException;
+
+    void relayoutWindow(int stackId, Rect position) throws RemoteException;
+
+    void removeWindow(int stackId) throws RemoteException;
+
+    void startCornerstoneApp(Intent intent, int stackId) throws RemoteException;
+}
@@ -0,0 +1,67 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.content;
+
+/**
+ * Stub of the framework class for the JVM tests
+ */
+public final class ComponentName {
+    private final String mPackage;
+    private final String mClass;
+
+    public ComponentName(String pkg, String cls) {
+        mPackage = pkg;
+        mClass = cls;
+    }
+
+    public String getPackageName() {
+        return mPackage;
+    }
+
+    public String getClassName() {
+        return mClass;
+    }
+
+    public String flattenToString() {
+        return mPackage + "/" + mClass;
+    }
+
+    public static ComponentName unflattenFromString(String str) {
+        int sep = str.indexOf('/');
+        if (sep < 0) {
+            return null;
+        }
+        return new ComponentName(str.substring(0, sep), str.substring(sep + 1));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ComponentName)) {
+            return false;
+        }
+        ComponentName c = (ComponentName) o;
+        return mPackage.equals(c.mPackage) && mClass.equals(c.mClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return mPackage.hashCode() * 31 + mClass.hashCode();
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.content;
+
+import java.io.File;
+
+import android.content.res.Resources;
+
+/**
+ * Stub of the framework class for the JVM tests. Tests override the
+ * methods the code under test needs, the others throw.
+ */
+public class Context {
+
+    public File getFileStreamPath(String name) {
+        throw new UnsupportedOperationException("getFileStreamPath");
+    }
+
+    public Resources getResources() {
+        throw new UnsupportedOperationException("getResources");
+    }
+
+    public final String getString(int resId) {
+        return getResources().getString(resId);
+    }
+
+    public final CharSequence getText(int resId) {
+        return getResources().getText(resId);
+    }
+}
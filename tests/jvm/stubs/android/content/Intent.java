@@ -0,0 +1,93 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.content;
+
+import java.net.URISyntaxException;
+
+/**
+ * Stub of the framework class for the JVM tests. Only the action and the
+ * component are kept, in the framework's "intent:" URI form.
+ */
+public class Intent {
+    private String mAction;
+    private ComponentName mComponent;
+
+    public Intent() {
+    }
+
+    public Intent(String action) {
+        mAction = action;
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public Intent setAction(String action) {
+        mAction = action;
+        return this;
+    }
+
+    public ComponentName getComponent() {
+        return mComponent;
+    }
+
+    public Intent setComponent(ComponentName component) {
+        mComponent = component;
+        return this;
+    }
+
+    public String toUri(int flags) {
+        StringBuilder uri = new StringBuilder("intent:#Intent;");
+        if (mAction != null) {
+            uri.append("action=").append(mAction).append(';');
+        }
+        if (mComponent != null) {
+            uri.append("component=").append(mComponent.flattenToString()).append(';');
+        }
+        return uri.append("end").toString();
+    }
+
+    public static Intent parseUri(String uri, int flags) throws URISyntaxException {
+        if (!uri.startsWith("intent:#Intent;") || !uri.endsWith("end")) {
+            throw new URISyntaxException(uri, "not an intent URI");
+        }
+        Intent intent = new Intent();
+        String[] parts = uri.substring("intent:#Intent;".length(), uri.length() - "end".length()).split(";");
+        for (String part : parts) {
+            if (part.startsWith("action=")) {
+                intent.mAction = part.substring("action=".length());
+            } else if (part.startsWith("component=")) {
+                intent.mComponent = ComponentName.unflattenFromString(part.substring("component=".length()));
+            }
+        }
+        return intent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Intent && toUri(0).equals(((Intent) o).toUri(0));
+    }
+
+    @Override
+    public int hashCode() {
+        return toUri(0).hashCode();
+    }
+}
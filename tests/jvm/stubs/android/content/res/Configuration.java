@@ -0,0 +1,67 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.content.res;
+
+/**
+ * Stub of the framework class for the JVM tests. Only the fields
+ * resources are picked by on a tablet are kept.
+ */
+public final class Configuration {
+
+    public static final int ORIENTATION_PORTRAIT = 1;
+    public static final int ORIENTATION_LANDSCAPE = 2;
+
+    public static final int CONFIG_ORIENTATION = 0x0080;
+    public static final int CONFIG_UI_MODE = 0x0200;
+    public static final int CONFIG_DENSITY = 0x1000;
+
+    public int orientation;
+    public int uiMode;
+    public int densityDpi;
+
+    public Configuration() {
+    }
+
+    public Configuration(Configuration o) {
+        setTo(o);
+    }
+
+    public void setTo(Configuration o) {
+        orientation = o.orientation;
+        uiMode = o.uiMode;
+        densityDpi = o.densityDpi;
+    }
+
+    /**
+     * Returns CONFIG_ bits of the fields differing from the given configuration
+     */
+    public int diff(Configuration delta) {
+        int changed = 0;
+        if (orientation != delta.orientation) {
+            changed |= CONFIG_ORIENTATION;
+        }
+        if (uiMode != delta.uiMode) {
+            changed |= CONFIG_UI_MODE;
+        }
+        if (densityDpi != delta.densityDpi) {
+            changed |= CONFIG_DENSITY;
+        }
+        return changed;
+    }
+}
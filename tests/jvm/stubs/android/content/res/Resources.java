@@ -0,0 +1,73 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.content.res;
+
+import android.graphics.drawable.Drawable;
+import android.util.DisplayMetrics;
+
+/**
+ * Stub of the framework class for the JVM tests. Tests override the
+ * methods the code under test needs, the others throw.
+ */
+public class Resources {
+
+    public static class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public NotFoundException(String name) {
+            super(name);
+        }
+    }
+
+    public boolean getBoolean(int id) {
+        throw new NotFoundException("boolean 0x" + Integer.toHexString(id));
+    }
+
+    public int getInteger(int id) {
+        throw new NotFoundException("integer 0x" + Integer.toHexString(id));
+    }
+
+    public int getColor(int id) {
+        throw new NotFoundException("color 0x" + Integer.toHexString(id));
+    }
+
+    public int getDimensionPixelSize(int id) {
+        throw new NotFoundException("dimension 0x" + Integer.toHexString(id));
+    }
+
+    public String getString(int id) {
+        throw new NotFoundException("string 0x" + Integer.toHexString(id));
+    }
+
+    public CharSequence getText(int id) {
+        return getString(id);
+    }
+
+    public Drawable getDrawable(int id) {
+        throw new NotFoundException("drawable 0x" + Integer.toHexString(id));
+    }
+
+    public DisplayMetrics getDisplayMetrics() {
+        throw new UnsupportedOperationException("getDisplayMetrics");
+    }
+
+    public Configuration getConfiguration() {
+        throw new UnsupportedOperationException("getConfiguration");
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.graphics;
+
+import android.content.res.Resources;
+
+/**
+ * Stub of the framework class for the JVM tests. Every resource decodes
+ * into an empty bitmap of DECODED_SIZE pixels square.
+ */
+public class BitmapFactory {
+
+    /**
+     * Not in the framework. Size of the bitmaps decoded from resources.
+     */
+    public static final int DECODED_SIZE = 32;
+
+    public static Bitmap decodeResource(Resources res, int id) {
+        return Bitmap.createBitmap(DECODED_SIZE, DECODED_SIZE, Bitmap.Config.ARGB_8888);
+    }
+}
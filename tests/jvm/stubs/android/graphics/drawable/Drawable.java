@@ -0,0 +1,70 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.graphics.drawable;
+
+import android.content.res.Resources;
+
+/**
+ * Stub of the framework class for the JVM tests. Drawables have no
+ * intrinsic size, only their state is kept.
+ */
+public class Drawable {
+
+    /**
+     * Holds state shared between drawables created from the same resource
+     */
+    public abstract static class ConstantState {
+        public abstract Drawable newDrawable();
+
+        public Drawable newDrawable(Resources res) {
+            return newDrawable();
+        }
+    }
+
+    private static final int[] EMPTY_STATE = new int[0];
+    private static final ConstantState sConstantState = new ConstantState() {
+        @Override
+        public Drawable newDrawable() {
+            return new Drawable();
+        }
+    };
+
+    private int[] mState = EMPTY_STATE;
+
+    public ConstantState getConstantState() {
+        return sConstantState;
+    }
+
+    public int getIntrinsicWidth() {
+        return -1;
+    }
+
+    public int getIntrinsicHeight() {
+        return -1;
+    }
+
+    public int[] getState() {
+        return mState;
+    }
+
+    public boolean setState(int[] stateSet) {
+        mState = stateSet;
+        return true;
+    }
+}
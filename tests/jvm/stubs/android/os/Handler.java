@@ -0,0 +1,132 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.os;
+
+/**
+ * Stub of the framework class for the JVM tests
+ */
+public class Handler {
+
+    /**
+     * Callback interface to handle messages without subclassing Handler
+     */
+    public interface Callback {
+        boolean handleMessage(Message msg);
+    }
+
+    private final Looper mLooper;
+    private final MessageQueue mQueue;
+    private final Callback mCallback;
+
+    public Handler() {
+        this((Callback) null);
+    }
+
+    public Handler(Callback callback) {
+        this(currentLooper(), callback);
+    }
+
+    public Handler(Looper looper) {
+        this(looper, null);
+    }
+
+    public Handler(Looper looper, Callback callback) {
+        mLooper = looper;
+        mQueue = looper.mQueue;
+        mCallback = callback;
+    }
+
+    private static Looper currentLooper() {
+        Looper looper = Looper.myLooper();
+        if (looper == null) {
+            throw new RuntimeException(
+                    "Can't create handler inside thread that has not called Looper.prepare()");
+        }
+        return looper;
+    }
+
+    public void handleMessage(Message msg) {
+    }
+
+    public void dispatchMessage(Message msg) {
+        if (msg.callback != null) {
+            msg.callback.run();
+        } else if (mCallback == null || !mCallback.handleMessage(msg)) {
+            handleMessage(msg);
+        }
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final Message obtainMessage() {
+        Message m = Message.obtain();
+        m.target = this;
+        return m;
+    }
+
+    public final Message obtainMessage(int what, Object obj) {
+        Message m = obtainMessage();
+        m.what = what;
+        m.obj = obj;
+        return m;
+    }
+
+    public final Message obtainMessage(int what, int arg1, int arg2, Object obj) {
+        Message m = obtainMessage(what, obj);
+        m.arg1 = arg1;
+        m.arg2 = arg2;
+        return m;
+    }
+
+    public final boolean post(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        Message m = obtainMessage();
+        m.callback = r;
+        return sendMessageDelayed(m, delayMillis);
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        mQueue.removeCallbacks(this, r);
+    }
+
+    /**
+     * Only the null token, removing all messages of the handler, is supported
+     */
+    public final void removeCallbacksAndMessages(Object token) {
+        if (token != null) {
+            throw new UnsupportedOperationException("removeCallbacksAndMessages with a token");
+        }
+        mQueue.removeMessages(this);
+    }
+
+    public final boolean sendMessage(Message msg) {
+        return sendMessageDelayed(msg, 0);
+    }
+
+    public final boolean sendMessageDelayed(Message msg, long delayMillis) {
+        msg.target = this;
+        return mQueue.enqueueMessage(msg, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+}
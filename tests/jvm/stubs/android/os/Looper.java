@@ -0,0 +1,118 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.os;
+
+/**
+ * Stub of the framework class for the JVM tests. Besides loop(), the
+ * queue of a thread can be run up to its idle state by runToIdle(), so
+ * tests can drive the thread acting as the UI thread step by step.
+ */
+public final class Looper {
+    private static final ThreadLocal<Looper> sThreadLocal = new ThreadLocal<Looper>();
+    private static Looper sMainLooper;
+
+    final MessageQueue mQueue = new MessageQueue();
+    final Thread mThread = Thread.currentThread();
+
+    private Looper() {
+    }
+
+    public static void prepare() {
+        if (sThreadLocal.get() != null) {
+            throw new RuntimeException("Only one Looper may be created per thread");
+        }
+        sThreadLocal.set(new Looper());
+    }
+
+    /**
+     * Unlike in the framework, the calling thread may have been prepared
+     * already, and the call may be repeated by the same thread, so every
+     * test can make its thread the UI one.
+     */
+    public static void prepareMainLooper() {
+        if (myLooper() == null) {
+            prepare();
+        }
+        synchronized (Looper.class) {
+            if (sMainLooper != null && sMainLooper != myLooper()) {
+                throw new IllegalStateException("The main Looper has already been prepared.");
+            }
+            sMainLooper = myLooper();
+        }
+    }
+
+    public static Looper getMainLooper() {
+        synchronized (Looper.class) {
+            return sMainLooper;
+        }
+    }
+
+    public static Looper myLooper() {
+        return sThreadLocal.get();
+    }
+
+    public static MessageQueue myQueue() {
+        return myLooper().mQueue;
+    }
+
+    public static void loop() {
+        MessageQueue queue = myQueue();
+        while (true) {
+            Message msg = queue.next(true);
+            if (msg == null) {
+                return;
+            }
+            dispatch(msg);
+        }
+    }
+
+    /**
+     * Not in the framework. Method runs messages of the calling thread's
+     * queue which are due and its idle handlers, then returns.
+     */
+    public static void runToIdle() {
+        MessageQueue queue = myQueue();
+        Message msg;
+        while ((msg = queue.next(false)) != null) {
+            dispatch(msg);
+        }
+    }
+
+    private static void dispatch(Message msg) {
+        msg.target.dispatchMessage(msg);
+        msg.recycle();
+    }
+
+    public MessageQueue getQueue() {
+        return mQueue;
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    public void quit() {
+        mQueue.quit(false);
+    }
+
+    public void quitSafely() {
+        mQueue.quit(true);
+    }
+}
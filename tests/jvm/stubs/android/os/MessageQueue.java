@@ -0,0 +1,189 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.os;
+
+import java.util.ArrayList;
+
+/**
+ * Stub of the framework class for the JVM tests. Messages are kept in a
+ * list ordered by time. As in the framework, idle handlers run once per
+ * next() call, when no message is due.
+ */
+public final class MessageQueue {
+
+    /**
+     * Callback for discovering when a thread is going to block waiting
+     * for more messages
+     */
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+
+    private final ArrayList<IdleHandler> mIdleHandlers = new ArrayList<IdleHandler>();
+    private IdleHandler[] mPendingIdleHandlers = new IdleHandler[4];
+    private Message mMessages;
+    private boolean mQuitting = false;
+
+    MessageQueue() {
+    }
+
+    public void addIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.remove(handler);
+        }
+    }
+
+    public boolean isIdle() {
+        synchronized (this) {
+            return mMessages == null || SystemClock.uptimeMillis() < mMessages.when;
+        }
+    }
+
+    boolean enqueueMessage(Message msg, long when) {
+        synchronized (this) {
+            if (mQuitting) {
+                msg.recycle();
+                return false;
+            }
+            msg.when = when;
+            Message prev = null;
+            Message p = mMessages;
+            while (p != null && p.when <= when) {
+                prev = p;
+                p = p.next;
+            }
+            msg.next = p;
+            if (prev == null) {
+                mMessages = msg;
+            } else {
+                prev.next = msg;
+            }
+            notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Returns next message due, blocking for it if block is set. Returns
+     * null when quitting or, when not blocking, if no message is due.
+     */
+    Message next(boolean block) {
+        boolean idleHandlersRun = false;
+        while (true) {
+            int idleCount;
+            synchronized (this) {
+                long now = SystemClock.uptimeMillis();
+                Message msg = mMessages;
+                if (msg != null && msg.when <= now) {
+                    mMessages = msg.next;
+                    msg.next = null;
+                    return msg;
+                }
+                if (mQuitting && msg == null) {
+                    return null;
+                }
+                idleCount = idleHandlersRun ? 0 : mIdleHandlers.size();
+                if (idleCount == 0) {
+                    if (!block) {
+                        return null;
+                    }
+                    try {
+                        wait(msg != null ? Math.max(1, msg.when - now) : 0);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                    continue;
+                }
+                if (mPendingIdleHandlers.length < idleCount) {
+                    mPendingIdleHandlers = new IdleHandler[idleCount];
+                }
+                mPendingIdleHandlers = mIdleHandlers.toArray(mPendingIdleHandlers);
+            }
+            for (int i = 0; i < idleCount; i++) {
+                IdleHandler handler = mPendingIdleHandlers[i];
+                mPendingIdleHandlers[i] = null;
+                if (!handler.queueIdle()) {
+                    removeIdleHandler(handler);
+                }
+            }
+            idleHandlersRun = true;
+        }
+    }
+
+    void removeCallbacks(Handler h, Runnable r) {
+        removeMessages(h, r, false);
+    }
+
+    void removeMessages(Handler h) {
+        removeMessages(h, null, true);
+    }
+
+    private void removeMessages(Handler h, Runnable r, boolean all) {
+        synchronized (this) {
+            Message prev = null;
+            Message p = mMessages;
+            while (p != null) {
+                Message next = p.next;
+                if (p.target == h && (all || p.callback == r)) {
+                    if (prev == null) {
+                        mMessages = next;
+                    } else {
+                        prev.next = next;
+                    }
+                    p.recycle();
+                } else {
+                    prev = p;
+                }
+                p = next;
+            }
+        }
+    }
+
+    void quit(boolean safe) {
+        synchronized (this) {
+            mQuitting = true;
+            long now = SystemClock.uptimeMillis();
+            Message prev = null;
+            Message p = mMessages;
+            while (p != null) {
+                Message next = p.next;
+                if (!safe || p.when > now) {
+                    if (prev == null) {
+                        mMessages = next;
+                    } else {
+                        prev.next = next;
+                    }
+                    p.recycle();
+                } else {
+                    prev = p;
+                }
+                p = next;
+            }
+            notifyAll();
+        }
+    }
+}
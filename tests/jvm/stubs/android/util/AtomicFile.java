@@ -0,0 +1,78 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package android.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Stub of the framework class for the JVM tests. Data is written to a
+ * new file which then replaces the base file.
+ */
+public class AtomicFile {
+    private final File mBaseName;
+    private final File mNewName;
+
+    public AtomicFile(File baseName) {
+        mBaseName = baseName;
+        mNewName = new File(baseName.getPath() + ".new");
+    }
+
+    public File getBaseFile() {
+        return mBaseName;
+    }
+
+    public FileOutputStream startWrite() throws IOException {
+        return new FileOutputStream(mNewName);
+    }
+
+    public void finishWrite(FileOutputStream str) {
+        try {
+            str.getFD().sync();
+            str.close();
+            if (!mNewName.renameTo(mBaseName)) {
+                Log.e("AtomicFile", "Can't rename " + mNewName);
+            }
+        } catch (IOException e) {
+            Log.e("AtomicFile", "finishWrite: " + e);
+        }
+    }
+
+    public void failWrite(FileOutputStream str) {
+        try {
+            str.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+        mNewName.delete();
+    }
+
+    public FileInputStream openRead() throws FileNotFoundException {
+        return new FileInputStream(mBaseName);
+    }
+
+    public void delete() {
+        mBaseName.delete();
+        mNewName.delete();
+    }
+}
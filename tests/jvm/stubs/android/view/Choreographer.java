@@ -0,0 +1,85 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.view;
+
+import java.util.ArrayList;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Stub of the framework class for the JVM tests. There is no display,
+ * a frame runs as soon as the looper gets to it after a callback is posted.
+ */
+public final class Choreographer {
+
+    /**
+     * Implement this interface to receive a callback when a new display
+     * frame is being rendered
+     */
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    private static final ThreadLocal<Choreographer> sThreadInstance = new ThreadLocal<Choreographer>() {
+        @Override
+        protected Choreographer initialValue() {
+            return new Choreographer(Looper.myLooper());
+        }
+    };
+
+    private final Handler mHandler;
+    private final ArrayList<FrameCallback> mCallbacks = new ArrayList<FrameCallback>();
+    private final ArrayList<FrameCallback> mRunning = new ArrayList<FrameCallback>();
+    private boolean mFrameScheduled = false;
+
+    private final Runnable mFrame = new Runnable() {
+        @Override
+        public void run() {
+            mFrameScheduled = false;
+            mRunning.addAll(mCallbacks);
+            mCallbacks.clear();
+            long now = System.nanoTime();
+            for (int i = 0; i < mRunning.size(); i++) {
+                mRunning.get(i).doFrame(now);
+            }
+            mRunning.clear();
+        }
+    };
+
+    private Choreographer(Looper looper) {
+        mHandler = new Handler(looper);
+    }
+
+    public static Choreographer getInstance() {
+        return sThreadInstance.get();
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        mCallbacks.add(callback);
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            mHandler.post(mFrame);
+        }
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+        mCallbacks.remove(callback);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.view;
+
+/**
+ * Stub of the framework class for the JVM tests. Events have a single
+ * pointer, its raw coordinates are the same as the view ones.
+ */
+public final class MotionEvent {
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    private long mDownTime;
+    private long mEventTime;
+    private int mAction;
+    private float mX;
+    private float mY;
+
+    private MotionEvent() {
+    }
+
+    public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y,
+            int metaState) {
+        MotionEvent ev = new MotionEvent();
+        ev.mDownTime = downTime;
+        ev.mEventTime = eventTime;
+        ev.mAction = action;
+        ev.mX = x;
+        ev.mY = y;
+        return ev;
+    }
+
+    public long getDownTime() {
+        return mDownTime;
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    public long getEventTimeNano() {
+        return mEventTime * 1000000L;
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public int getActionMasked() {
+        return mAction & ACTION_MASK;
+    }
+
+    public int getPointerCount() {
+        return 1;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public float getX(int pointerIndex) {
+        return mX;
+    }
+
+    public float getY(int pointerIndex) {
+        return mY;
+    }
+
+    public float getRawX() {
+        return mX;
+    }
+
+    public float getRawY() {
+        return mY;
+    }
+
+    public void recycle() {
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.view;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+
+/**
+ * Stub of the framework class for the JVM tests. Views are never attached
+ * nor drawn by anything, tests call layout() and draw() themselves.
+ * Runnables posted to a view run on the looper of the thread which
+ * posted the first one.
+ */
+public class View {
+    public static final int VISIBLE = 0x0;
+    public static final int INVISIBLE = 0x4;
+    public static final int GONE = 0x8;
+
+    /**
+     * Interface definition for a callback to be invoked when a view is clicked
+     */
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    private final Context mContext;
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+    private int mVisibility = VISIBLE;
+    private OnClickListener mOnClickListener;
+    private ViewGroup.LayoutParams mLayoutParams;
+    private Drawable mBackground;
+    private Handler mHandler;
+
+    public View(Context context) {
+        mContext = context;
+    }
+
+    public View(Context context, AttributeSet attrs) {
+        mContext = context;
+    }
+
+    public final Context getContext() {
+        return mContext;
+    }
+
+    public Resources getResources() {
+        return mContext.getResources();
+    }
+
+    public final int getWidth() {
+        return mRight - mLeft;
+    }
+
+    public final int getHeight() {
+        return mBottom - mTop;
+    }
+
+    public void layout(int l, int t, int r, int b) {
+        int oldWidth = getWidth();
+        int oldHeight = getHeight();
+        boolean changed = mLeft != l || mTop != t || mRight != r || mBottom != b;
+        mLeft = l;
+        mTop = t;
+        mRight = r;
+        mBottom = b;
+        if (oldWidth != getWidth() || oldHeight != getHeight()) {
+            onSizeChanged(getWidth(), getHeight(), oldWidth, oldHeight);
+        }
+        onLayout(changed, l, t, r, b);
+    }
+
+    public void draw(Canvas canvas) {
+        onDraw(canvas);
+    }
+
+    public void invalidate() {
+    }
+
+    public void requestLayout() {
+    }
+
+    public int getVisibility() {
+        return mVisibility;
+    }
+
+    public void setVisibility(int visibility) {
+        mVisibility = visibility;
+    }
+
+    public void setOnClickListener(OnClickListener l) {
+        mOnClickListener = l;
+    }
+
+    public boolean performClick() {
+        if (mOnClickListener != null) {
+            mOnClickListener.onClick(this);
+            return true;
+        }
+        return false;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        mLayoutParams = params;
+    }
+
+    public Drawable getBackground() {
+        return mBackground;
+    }
+
+    public void setBackground(Drawable background) {
+        mBackground = background;
+    }
+
+    public void refreshDrawableState() {
+        int[] state = onCreateDrawableState(0);
+        if (mBackground != null) {
+            mBackground.setState(state);
+        }
+    }
+
+    protected int[] onCreateDrawableState(int extraSpace) {
+        return new int[extraSpace];
+    }
+
+    protected static int[] mergeDrawableStates(int[] baseState, int[] additionalState) {
+        int i = baseState.length - 1;
+        while (i >= 0 && baseState[i] == 0) {
+            i--;
+        }
+        System.arraycopy(additionalState, 0, baseState, i + 1, additionalState.length);
+        return baseState;
+    }
+
+    public boolean post(Runnable action) {
+        return handler().post(action);
+    }
+
+    public boolean postDelayed(Runnable action, long delayMillis) {
+        return handler().postDelayed(action, delayMillis);
+    }
+
+    public boolean removeCallbacks(Runnable action) {
+        if (mHandler != null) {
+            mHandler.removeCallbacks(action);
+        }
+        return true;
+    }
+
+    private Handler handler() {
+        if (mHandler == null) {
+            mHandler = new Handler(Looper.myLooper());
+        }
+        return mHandler;
+    }
+
+    public boolean onTouchEvent(MotionEvent event) {
+        return false;
+    }
+
+    protected void onAttachedToWindow() {
+    }
+
+    protected void onDetachedFromWindow() {
+    }
+
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    }
+
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+    }
+
+    protected void onDraw(Canvas canvas) {
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.view;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+/**
+ * Stub of the framework class for the JVM tests, children are only kept
+ */
+public class ViewGroup extends View {
+
+    /**
+     * Layout information views give to their parents
+     */
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final ArrayList<View> mChildren = new ArrayList<View>();
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public ViewGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return false;
+    }
+
+    public void addView(View child) {
+        mChildren.add(child);
+    }
+
+    public void removeView(View view) {
+        mChildren.remove(view);
+    }
+
+    public void removeAllViews() {
+        mChildren.clear();
+    }
+
+    public View getChildAt(int index) {
+        if (index < 0 || index >= mChildren.size()) {
+            return null;
+        }
+        return mChildren.get(index);
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public int indexOfChild(View child) {
+        return mChildren.indexOf(child);
+    }
+}
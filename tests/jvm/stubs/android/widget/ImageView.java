@@ -0,0 +1,57 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.view.View;
+
+/**
+ * Stub of the framework class for the JVM tests
+ */
+public class ImageView extends View {
+
+    public enum ScaleType {
+        MATRIX,
+        FIT_XY,
+        FIT_START,
+        FIT_CENTER,
+        FIT_END,
+        CENTER,
+        CENTER_CROP,
+        CENTER_INSIDE
+    }
+
+    private ScaleType mScaleType = ScaleType.FIT_CENTER;
+
+    public ImageView(Context context) {
+        super(context);
+    }
+
+    public ScaleType getScaleType() {
+        return mScaleType;
+    }
+
+    public void setScaleType(ScaleType scaleType) {
+        mScaleType = scaleType;
+    }
+
+    public void setImageBitmap(Bitmap bm) {
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * Stub of the framework class for the JVM tests, toasts are not shown
+ */
+public class Toast {
+    public static final int LENGTH_SHORT = 0;
+    public static final int LENGTH_LONG = 1;
+
+    private final CharSequence mText;
+
+    private Toast(CharSequence text) {
+        mText = text;
+    }
+
+    public static Toast makeText(Context context, CharSequence text, int duration) {
+        return new Toast(text);
+    }
+
+    public void show() {
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * TietoMultiWindow
+ * Copyright (C) 2013 Tieto Poland Sp. z o.o.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.tieto.multiwindow;
+
+/**
+ * Stand-in for the class aapt generates from res/, holding ids of the
+ * resources used by the classes built on the JVM. Tests resolve them with
+ * TestResources.
+ */
+public final class R {
+    public static final class attr {
+        public static final int state_right = 0x7f010000;
+        public static final int state_docked = 0x7f010001;
+        public static final int state_expanded = 0x7f010002;
+        public static final int state_active = 0x7f010003;
+    }
+
+    public static final class bool {
+        public static final int live_window_follow = 0x7f020000;
+    }
+
+    public static final class color {
+        public static final int ghost_color = 0x7f030000;
+        public static final int ghost_frame_color = 0x7f030001;
+        public static final int ghost_error_frame_color = 0x7f030002;
+    }
+
+    public static final class drawable {
+        public static final int corner = 0x7f040000;
+        public static final int tab_btn = 0x7f040001;
+        public static final int remove_tab_btn = 0x7f040002;
+    }
+
+    public static final class integer {
+        public static final int max_windows_per_tab = 0x7f050000;
+        public static final int max_tabs = 0x7f050001;
+        public static final int launch_threads = 0x7f050002;
+        public static final int launch_timeout_ms = 0x7f050003;
+        public static final int launch_retries = 0x7f050004;
+        public static final int min_tabs = 0x7f050005;
+        public static final int tab_hibernation_timeout_ms = 0x7f050006;
+        public static final int thumbnail_cache_kb = 0x7f050007;
+        public static final int thumbnail_scale_percent = 0x7f050008;
+    }
+
+    public static final class string {
+        public static final int default_app = 0x7f060000;
+        public static final int docked_tiling = 0x7f060001;
+        public static final int lastTab = 0x7f060002;
+    }
+}